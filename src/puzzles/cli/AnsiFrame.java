@@ -0,0 +1,164 @@
+package puzzles.cli;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Keeps the last frame drawn to an ANSI terminal and repaints only the cells that changed.
+ * The frame is anchored at the top-left of the screen; everything below it is status area.
+ * Cells are addressed by absolute screen row, so this only works while nothing scrolls: a
+ * frame too tall to leave {@link #STATUS_LINES} free below it is cleared and printed whole
+ * on every update instead.
+ */
+final class AnsiFrame {
+    /**
+     * Rows kept free below the frame: between updates the caller may print up to three
+     * lines (notice, prompt with the echoed input, "Thinking...") and the cursor ends on the fourth.
+     */
+    static final int STATUS_LINES = 4;
+    private static final int DEFAULT_ROWS = 24;
+
+    private static final String CSI = "\u001b[";
+    private static final char[] EMPTY = new char[0];
+    // Unchanged gaps shorter than this are rewritten instead of paying for a cursor move
+    private static final int MIN_SKIP = 4;
+
+    private final int screenRows;
+    private final StringBuilder out = new StringBuilder(1024);
+    private char[][] lines;
+
+    AnsiFrame(int screenRows) {
+        if (screenRows < 1) {
+            throw new IllegalArgumentException("Screen needs at least one row");
+        }
+        this.screenRows = screenRows;
+    }
+
+    /**
+     * Height of the terminal: $LINES if set, else what stty reports for /dev/tty, else 24.
+     * Read once per game, so resizing the window mid-game is not picked up.
+     */
+    static int terminalRows() {
+        Integer lines = parseRows(System.getenv("LINES"));
+        if (lines != null) {
+            return lines;
+        }
+        try {
+            Process stty = new ProcessBuilder("stty", "size")
+                    .redirectInput(new File("/dev/tty"))
+                    .redirectError(Redirect.DISCARD)
+                    .start();
+            String size;
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(stty.getInputStream(), StandardCharsets.US_ASCII))) {
+                size = reader.readLine();
+            }
+            if (stty.waitFor() == 0 && size != null) {
+                // "rows cols"
+                Integer rows = parseRows(size.trim().split("\\s+")[0]);
+                if (rows != null) {
+                    return rows;
+                }
+            }
+        } catch (IOException e) {
+            // No stty or no controlling terminal: fall back to the default
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return DEFAULT_ROWS;
+    }
+
+    private static Integer parseRows(String s) {
+        if (s == null) return null;
+        try {
+            int rows = Integer.parseInt(s.trim());
+            return rows > 0 ? rows : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Return the escape sequence that turns the previous frame into this one.
+     * The cursor is left on the line below the frame with the rest of the screen cleared.
+     */
+    String update(String text) {
+        out.setLength(0);
+        char[][] next = splitLines(text);
+        if (next.length + STATUS_LINES > screenRows) {
+            // The status lines would scroll the frame up and later diffs would land on the
+            // wrong rows, so print it whole from a blank screen and keep nothing to diff against
+            out.append(CSI).append('H').append(CSI).append("2J").append(text);
+            if (!text.endsWith("\n")) out.append('\n');
+            lines = null;
+            return out.toString();
+        }
+        char[][] prev = lines;
+        if (prev == null) {
+            // First frame: start from a blank screen
+            out.append(CSI).append("2J");
+            prev = new char[0][];
+        }
+
+        int rows = Math.max(prev.length, next.length);
+        for (int r = 0; r < rows; r++) {
+            char[] a = r < prev.length ? prev[r] : EMPTY;
+            char[] b = r < next.length ? next[r] : EMPTY;
+            diffLine(r, a, b);
+        }
+
+        out.append(CSI).append(next.length + 1).append(";1H").append(CSI).append('J');
+        lines = next;
+        return out.toString();
+    }
+
+    private void diffLine(int row, char[] a, char[] b) {
+        int len = Math.max(a.length, b.length);
+        int c = 0;
+        while (c < len) {
+            if (cell(a, c) == cell(b, c)) {
+                c++;
+                continue;
+            }
+            int start = c;
+            int end = c + 1;
+            // Extend the run across short unchanged gaps
+            for (int k = end; k < len && k - end < MIN_SKIP; k++) {
+                if (cell(a, k) != cell(b, k)) {
+                    end = k + 1;
+                }
+            }
+            out.append(CSI).append(row + 1).append(';').append(start + 1).append('H');
+            for (int k = start; k < end; k++) {
+                out.append(cell(b, k));
+            }
+            c = end;
+        }
+    }
+
+    private static char cell(char[] line, int c) {
+        return c < line.length ? line[c] : ' ';
+    }
+
+    private static char[][] splitLines(String text) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') count++;
+        }
+        if (!text.isEmpty() && text.charAt(text.length() - 1) != '\n') count++;
+
+        char[][] result = new char[count][];
+        int start = 0;
+        for (int r = 0; r < count; r++) {
+            int end = text.indexOf('\n', start);
+            if (end < 0) end = text.length();
+            result[r] = text.substring(start, end).toCharArray();
+            start = end + 1;
+        }
+        return result;
+    }
+}
@@ -3,20 +3,99 @@ package puzzles.cli;
 import puzzles.core.Game;
 import puzzles.core.Player;
 import puzzles.core.Position;
+import puzzles.dotsandboxes.BoardSnapshot;
 import puzzles.dotsandboxes.DotsAndBoxesGame;
+import puzzles.dotsandboxes.EvalTuner;
+import puzzles.dotsandboxes.Evaluator;
+import puzzles.dotsandboxes.Perft;
 import puzzles.dotsandboxes.Edge;
+import puzzles.slidingpuzzle.DistanceTable;
+import puzzles.slidingpuzzle.SlidingPuzzleBoard;
+import puzzles.slidingpuzzle.SlidingPuzzleGame;
+import puzzles.slidingpuzzle.SlidingPuzzleSolver;
+import puzzles.slidingpuzzle.StateSpaceEnumerator;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Random;
 
 /**
  * Terminal UI supporting both sliding puzzle and dots and boxes games.
  * Welcome → game selection → game-specific setup → gameplay loop → end game options.
  */
 public final class App {
+    // Buffered so a whole turn (board, messages, prompt) goes out in one flush
+    private static final PrintStream OUT =
+            new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16), false);
+
+    // Set by --ansi: redraw only the changed cells of the board instead of reprinting it
+    private static boolean ansi = false;
+
     public static void main(String[] args) throws IOException {
+        try {
+            if (args.length > 0 && args[0].equals("--script")) {
+                runScript(args);
+                return;
+            }
+            if (args.length > 0 && args[0].equals("--enumerate")) {
+                runEnumerate(args);
+                return;
+            }
+            if (args.length > 0 && args[0].equals("--validate")) {
+                runValidate(args);
+                return;
+            }
+            if (args.length > 0 && args[0].equals("--perft")) {
+                runPerft(args);
+                return;
+            }
+            if (args.length > 0 && args[0].equals("--tune")) {
+                runTune(args);
+                return;
+            }
+            for (String arg : args) {
+                if (arg.equals("--ansi")) {
+                    ansi = true;
+                } else {
+                    println("Unknown option: " + arg);
+                    return;
+                }
+            }
+            run();
+        } finally {
+            OUT.flush();
+        }
+    }
+
+    // --script <file|-> <rows> <cols>
+    private static void runScript(String[] args) throws IOException {
+        Integer rows = args.length == 4 ? parseIntOrNull(args[2]) : null;
+        Integer cols = args.length == 4 ? parseIntOrNull(args[3]) : null;
+        String usage = "Usage: App --script <file|-> <rows> <cols>   (rows and cols in [2, 9])";
+        if (rows == null || cols == null || rows < 2 || rows > 9 || cols < 2 || cols > 9) {
+            println(usage);
+            return;
+        }
+        try {
+            ScriptRunner.run(args[1], rows, cols, OUT);
+        } catch (FileNotFoundException e) {
+            println("Cannot read script: " + e.getMessage());
+            println(usage);
+        }
+    }
+
+    private static void run() throws IOException {
         BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
         println("\nWelcome to the Game Collection!");
         println("Choose your game:");
@@ -50,9 +129,59 @@ public final class App {
         int rows = readIntInRange(in, "Number of rows (2 - 8): ", 2, 8);
         int cols = readIntInRange(in, "Number of cols (2 - 8): ", 2, 8);
 
-        // For now, we'll just show a message since we don't have the sliding puzzle implementation
-        println("Sliding puzzle game would start here.");
-        println("(This would integrate with your existing sliding puzzle code)");
+        SlidingPuzzleGame game = new SlidingPuzzleGame();
+        game.newGame(rows, cols);
+
+        println("\nSlide tiles into the blank by entering the tile number.");
+        if (game.hasHints()) {
+            println("Enter 'hint' to see the next move of a shortest solution.");
+        }
+        println("");
+
+        AnsiFrame frame = ansi ? new AnsiFrame(AnsiFrame.terminalRows()) : null;
+        String notice = null;
+
+        while (true) {
+            if (frame != null) {
+                OUT.print(frame.update(game.render()));
+            } else {
+                println(game.render());
+            }
+            if (notice != null) {
+                println(notice);
+                notice = null;
+            }
+
+            if (game.isWin()) {
+                println("Congratulations " + (player.isEmpty() ? "" : player + " ") +
+                        "- solved in " + game.getMoves() + " moves!");
+                break;
+            }
+
+            String input = prompt(in, (player.isEmpty() ? "" : player + ", ") + "tile to slide: ");
+            if (input.equalsIgnoreCase("hint")) {
+                if (!game.hasHints()) {
+                    notice = "Hints are only available for boards with at most 12 cells, and for 4x4.";
+                } else {
+                    println("Thinking...");
+                    OUT.flush();
+                    try {
+                        notice = "Hint: slide " + game.hint() + ".";
+                    } catch (IOException e) {
+                        // e.g. the pattern database directory is not writable
+                        notice = "Hints unavailable: " + e.getMessage();
+                    }
+                }
+                continue;
+            }
+
+            Integer tile = parseIntOrNull(input);
+            if (tile == null) {
+                notice = "Invalid input. Enter the number of a tile next to the blank.";
+            } else if (!game.applyMove(tile)) {
+                notice = "Tile " + tile + " is not next to the blank.";
+            }
+        }
     }
 
     private static void playDotsAndBoxes(BufferedReader in) throws IOException {
@@ -85,9 +214,20 @@ public final class App {
         println("Coordinates are 1-based as shown in the board display.");
         println("");
 
+        AnsiFrame frame = ansi ? new AnsiFrame(AnsiFrame.terminalRows()) : null;
+        String notice = null;
+
         // Game loop
         while (true) {
-            println(game.render());
+            if (frame != null) {
+                OUT.print(frame.update(game.render()));
+            } else {
+                println(game.render());
+            }
+            if (notice != null) {
+                println(notice);
+                notice = null;
+            }
             
             if (game.isWin()) {
                 if (game.isTie()) {
@@ -116,27 +256,240 @@ public final class App {
                 r = Integer.parseInt(parts[1]);
                 c = Integer.parseInt(parts[2]);
             } catch (Exception e) {
-                println("Invalid format. Use 'H r c' for horizontal or 'V r c' for vertical edges.");
+                notice = "Invalid format. Use 'H r c' for horizontal or 'V r c' for vertical edges.";
                 continue;
             }
             
             // Apply the move
             boolean success = game.applyMove(type, r, c);
             if (!success) {
-                println("Invalid move. That edge is already claimed or out of range.");
+                notice = "Invalid move. That edge is already claimed or out of range.";
+            }
+        }
+    }
+
+    // --enumerate <rows> <cols> <output file>
+    private static void runEnumerate(String[] args) throws IOException {
+        Integer rows = args.length == 4 ? parseIntOrNull(args[1]) : null;
+        Integer cols = args.length == 4 ? parseIntOrNull(args[2]) : null;
+        if (rows == null || cols == null || !StateSpaceEnumerator.supports(rows, cols)) {
+            println("Usage: App --enumerate <rows> <cols> <output file>   (at most 12 cells, e.g. 3 3, 2 5, 3 4)");
+            return;
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        long start = System.nanoTime();
+        long[] levels = new StateSpaceEnumerator(rows, cols).run(new File(args[3]), threads, OUT);
+        long states = 0;
+        for (long count : levels) states += count;
+        OUT.printf("%dx%d: %d states, hardest needs %d moves, %.1f s on %d threads%n",
+                   rows, cols, states, levels.length - 1, (System.nanoTime() - start) / 1e9, threads);
+    }
+
+    // --validate <table file> [--positions N] [--seed S]
+    private static void runValidate(String[] args) throws IOException {
+        String usage = "Usage: App --validate <table file> [--positions N] [--seed S]   (table from --enumerate)";
+        if (args.length < 2) {
+            println(usage);
+            return;
+        }
+        int positions = 1000;
+        int seed = 1;
+        for (int i = 2; i < args.length; i++) {
+            Integer value = i + 1 < args.length ? parseIntOrNull(args[i + 1]) : null;
+            if (args[i].equals("--positions") && value != null && value > 0) {
+                positions = value;
+            } else if (args[i].equals("--seed") && value != null) {
+                seed = value;
+            } else {
+                println(usage);
+                return;
+            }
+            i++;
+        }
+        DistanceTable table;
+        try {
+            table = DistanceTable.open(new File(args[1]));
+        } catch (IOException e) {
+            println("Cannot read table: " + e.getMessage());
+            println(usage);
+            return;
+        }
+
+        // Solve uniformly drawn states and compare against the exact distances
+        SlidingPuzzleSolver solver = SlidingPuzzleSolver.forSize(table.rows(), table.cols());
+        Random random = new Random(seed);
+        int mismatches = 0;
+        int longest = 0;
+        long nodes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < positions; i++) {
+            SlidingPuzzleBoard board = table.randomBoard(random);
+            String layout = layout(board);
+            int expected = table.distance(board);
+            SlidingPuzzleSolver.Solution solution = solver.solve(board);
+            nodes += solution.getNodes();
+            longest = Math.max(longest, solution.length());
+            // Replay the moves too, so a wrong sequence is caught as well as a wrong length
+            boolean legal = true;
+            for (int tile : solution.getTiles()) {
+                legal &= board.slide(tile);
             }
+            if (solution.length() != expected || !legal || !board.isSolved()) {
+                mismatches++;
+                if (mismatches <= 10) {
+                    println("Mismatch on " + layout + ": table " + expected + " moves, solver " +
+                            solution.length() + (legal && board.isSolved() ? "" : " (does not solve it)"));
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        OUT.printf("%dx%d table: %d states%n", table.rows(), table.cols(), table.states());
+        println("Checked " + positions + " random states against the solver: " + mismatches + " mismatches");
+        OUT.printf("Solver: longest solution %d moves, %d nodes and %.3f ms per solve%n",
+                   longest, nodes / positions, elapsed / 1e6 / positions);
+    }
+
+    private static String layout(SlidingPuzzleBoard board) {
+        StringBuilder sb = new StringBuilder();
+        for (int cell = 0; cell < board.size(); cell++) {
+            if (cell > 0) sb.append(cell % board.cols() == 0 ? " / " : " ");
+            sb.append(board.tileAt(cell));
+        }
+        return sb.toString();
+    }
+
+    // --perft <rows> <cols> <depth> [--bulk] [--threads N] [--moves file]
+    private static void runPerft(String[] args) throws IOException {
+        String usage = "Usage: App --perft <rows> <cols> <depth> [--bulk] [--threads N] [--moves file]";
+        Integer rows = args.length >= 4 ? parseIntOrNull(args[1]) : null;
+        Integer cols = args.length >= 4 ? parseIntOrNull(args[2]) : null;
+        Integer depth = args.length >= 4 ? parseIntOrNull(args[3]) : null;
+        if (rows == null || cols == null || depth == null || rows < 2 || rows > 9 || cols < 2 || cols > 9 || depth < 1) {
+            println(usage);
+            return;
+        }
+        boolean bulk = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String movesFile = null;
+        for (int i = 4; i < args.length; i++) {
+            if (args[i].equals("--bulk")) {
+                bulk = true;
+            } else if (args[i].equals("--threads") && i + 1 < args.length && parseIntOrNull(args[i + 1]) != null) {
+                threads = Math.max(1, parseIntOrNull(args[++i]));
+            } else if (args[i].equals("--moves") && i + 1 < args.length) {
+                movesFile = args[++i];
+            } else {
+                println(usage);
+                return;
+            }
+        }
+
+        Player player1 = new Player("A");
+        Player player2 = new Player("B");
+        DotsAndBoxesGame game = new DotsAndBoxesGame();
+        game.setPlayers(player1, player2);
+        game.newGame(rows, cols);
+        if (movesFile != null) {
+            try (Reader reader = new InputStreamReader(new FileInputStream(movesFile), StandardCharsets.US_ASCII)) {
+                MoveScript script = new MoveScript(reader);
+                while (true) {
+                    boolean more = script.next();
+                    // next() steps over malformed lines; stop at the first one, since every
+                    // later move would be replayed for the wrong player
+                    if (script.malformed() > 0) {
+                        println("Malformed line " + script.firstMalformedLine() + " of " + movesFile);
+                        return;
+                    }
+                    if (!more) break;
+                    if (!game.applyMove(script.type(), script.row(), script.col())) {
+                        println("Illegal move on line " + script.line() + " of " + movesFile);
+                        return;
+                    }
+                }
+            } catch (FileNotFoundException e) {
+                println("Cannot read moves file: " + e.getMessage());
+                println(usage);
+                return;
+            }
+        }
+
+        BoardSnapshot position = game.getBoard().snapshot();
+        boolean player2ToMove = game.getCurrentPlayer() == player2;
+        long start = System.nanoTime();
+        List<Perft.Result> results = Perft.divide(position, player2ToMove, depth, bulk, threads);
+        long elapsed = System.nanoTime() - start;
+
+        for (Perft.Result r : results) {
+            OUT.printf("%-8s %d%n", position.describeEdge(r.getEdge()) + ":", r.getNodes());
+        }
+        Perft.Result total = Perft.total(results);
+        println("");
+        println("Depth " + depth + (bulk ? " (bulk)" : "") + ", " + results.size() + " root moves");
+        println("Nodes: " + total.getNodes());
+        if (!bulk) {
+            println("Captures: " + total.getCaptures() + ", double captures: " + total.getDoubleCaptures() +
+                    ", player 2 to move: " + total.getPlayer2ToMove());
+        }
+        double seconds = elapsed / 1e9;
+        OUT.printf("Time: %.3f s, %.0f nodes/s on %d threads%n", seconds,
+                   seconds > 0 ? total.getNodes() / seconds : 0.0, threads);
+    }
+
+    // --tune <rows> <cols> [--games N] [--threads N] [--seed S]
+    private static void runTune(String[] args) {
+        String usage = "Usage: App --tune <rows> <cols> [--games N] [--threads N] [--seed S]";
+        Integer rows = args.length >= 3 ? parseIntOrNull(args[1]) : null;
+        Integer cols = args.length >= 3 ? parseIntOrNull(args[2]) : null;
+        if (rows == null || cols == null || rows < 2 || rows > 9 || cols < 2 || cols > 9) {
+            println(usage);
+            return;
+        }
+        int games = 20000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int seed = 1;
+        for (int i = 3; i < args.length; i++) {
+            Integer value = i + 1 < args.length ? parseIntOrNull(args[i + 1]) : null;
+            if (args[i].equals("--games") && value != null && value > 0) {
+                games = value;
+            } else if (args[i].equals("--threads") && value != null) {
+                threads = Math.max(1, value);
+            } else if (args[i].equals("--seed") && value != null) {
+                seed = value;
+            } else {
+                println(usage);
+                return;
+            }
+            i++;
+        }
+
+        EvalTuner.Result result = new EvalTuner(rows, cols).run(games, threads, seed, Evaluator.defaultWeights());
+        double playSeconds = result.getSelfPlayNanos() / 1e9;
+        OUT.printf("Self-play: %d games, %d positions in %.2f s (%.0f positions/s) on %d threads%n",
+                   result.getGames(), result.getPositions(), playSeconds,
+                   playSeconds > 0 ? result.getPositions() / playSeconds : 0.0, threads);
+        OUT.printf("Fit: %d Newton steps in %.2f s%n", result.getSteps(), result.getFitNanos() / 1e9);
+        OUT.printf("Texel error: %.4f -> %.4f (log loss %.4f -> %.4f)%n", result.getErrorBefore(),
+                   result.getErrorAfter(), result.getLossBefore(), result.getLossAfter());
+        println("");
+        OUT.printf("%-16s %9s %9s%n", "feature", "start", "tuned");
+        double[] start = result.getStartWeights();
+        double[] tuned = result.getWeights();
+        for (int f = 0; f < Evaluator.FEATURES; f++) {
+            OUT.printf("%-16s %9.4f %9.4f%n", Evaluator.featureName(f), start[f], tuned[f]);
         }
     }
 
     // ---- Helper methods ----
     private static String prompt(BufferedReader in, String msg) throws IOException {
-        System.out.print(msg);
+        OUT.print(msg);
+        OUT.flush();
         String s = in.readLine();
         return (s == null) ? "" : s.trim();
     }
 
     private static void println(String s) { 
-        System.out.println(s); 
+        OUT.println(s);
     }
 
     private static int readIntInRange(BufferedReader in, String msg, int lo, int hi) throws IOException {
@@ -0,0 +1,162 @@
+package puzzles.cli;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Streaming parser for dots and boxes move scripts: one "H r c" or "V r c" per line.
+ * Blank lines and '#' comments are skipped; malformed lines are counted, not thrown.
+ * Reads straight from a char buffer so no per-line Strings or regexes are created.
+ */
+final class MoveScript {
+    private static final int EOF = -1;
+    private static final int MAX_DIGITS = 9;
+
+    private final Reader in;
+    private final char[] buf = new char[1 << 16];
+    private int pos = 0;
+    private int limit = 0;
+
+    private long line = 0;
+    private long malformed = 0;
+    private long firstMalformedLine = 0;
+
+    private char type;
+    private int row;
+    private int col;
+
+    MoveScript(Reader in) {
+        if (in == null) {
+            throw new IllegalArgumentException("Reader cannot be null");
+        }
+        this.in = in;
+    }
+
+    /**
+     * Advance to the next well-formed move.
+     * Returns false at end of input.
+     */
+    boolean next() throws IOException {
+        while (true) {
+            int ch = skipBlanks();
+            if (ch == EOF) {
+                return false;
+            }
+            line++;
+            if (ch == '\n' || ch == '#') {
+                skipLine(ch);
+                continue;
+            }
+            if (parseMove(ch)) {
+                return true;
+            }
+            malformed++;
+            if (firstMalformedLine == 0) firstMalformedLine = line;
+        }
+    }
+
+    char type() {
+        return type;
+    }
+
+    int row() {
+        return row;
+    }
+
+    int col() {
+        return col;
+    }
+
+    /** 1-based line number of the current move. */
+    long line() {
+        return line;
+    }
+
+    long malformed() {
+        return malformed;
+    }
+
+    /** Line number of the first malformed line, or 0 if none. */
+    long firstMalformedLine() {
+        return firstMalformedLine;
+    }
+
+    // ch is the first non-blank char of the line. Consumes the line, including its '\n'.
+    private boolean parseMove(int ch) throws IOException {
+        if (ch == 'h' || ch == 'H') {
+            type = 'H';
+        } else if (ch == 'v' || ch == 'V') {
+            type = 'V';
+        } else {
+            skipLine(ch);
+            return false;
+        }
+
+        ch = read();
+        if (ch != ' ' && ch != '\t') {
+            skipLine(ch);
+            return false;
+        }
+        row = parseInt(skipBlanks());
+        if (row < 0) {
+            skipLine(read());
+            return false;
+        }
+        col = parseInt(skipBlanks());
+        if (col < 0) {
+            skipLine(read());
+            return false;
+        }
+
+        // Only trailing blanks or a comment may follow
+        ch = skipBlanks();
+        boolean ok = ch == '\n' || ch == '#' || ch == EOF;
+        skipLine(ch);
+        return ok;
+    }
+
+    // Parses digits starting at ch. Returns -1 if there are none or too many.
+    // The char after the last digit is pushed back.
+    private int parseInt(int ch) throws IOException {
+        int value = 0;
+        int digits = 0;
+        while (ch >= '0' && ch <= '9') {
+            if (++digits > MAX_DIGITS) return -1;
+            value = value * 10 + (ch - '0');
+            ch = read();
+        }
+        unread(ch);
+        return digits == 0 ? -1 : value;
+    }
+
+    private int skipBlanks() throws IOException {
+        int ch = read();
+        while (ch == ' ' || ch == '\t' || ch == '\r') {
+            ch = read();
+        }
+        return ch;
+    }
+
+    private void skipLine(int ch) throws IOException {
+        while (ch != '\n' && ch != EOF) {
+            ch = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (pos == limit) {
+            limit = in.read(buf, 0, buf.length);
+            pos = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return EOF;
+            }
+        }
+        return buf[pos++];
+    }
+
+    private void unread(int ch) {
+        // Only ever called right after read() returned ch, so the char is still in buf
+        if (ch != EOF) pos--;
+    }
+}
@@ -0,0 +1,82 @@
+package puzzles.cli;
+
+import puzzles.core.Player;
+import puzzles.dotsandboxes.DotsAndBoxesGame;
+import puzzles.metrics.Metrics;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Non-interactive dots and boxes replay: reads a move script from a file or stdin,
+ * applies every move without rendering, and prints only the result and timings.
+ */
+final class ScriptRunner {
+    private ScriptRunner() {
+    }
+
+    /** path "-" reads from stdin. */
+    static void run(String path, int rows, int cols, PrintStream out) throws IOException {
+        Player player1 = new Player("A");
+        Player player2 = new Player("B");
+        DotsAndBoxesGame game = new DotsAndBoxesGame();
+        game.setPlayers(player1, player2);
+        game.newGame(rows, cols);
+
+        long applied = 0;
+        long rejected = 0;
+        long firstRejectedLine = 0;
+        // Read the switch before timing so JMX setup is not billed to the first move;
+        // JFR events stay unbuilt (and JFR unstarted) unless a recording is running
+        boolean metrics = Metrics.ENABLED;
+        long start = System.nanoTime();
+
+        InputStream stream = path.equals("-") ? System.in : new FileInputStream(path);
+        try (Reader reader = new InputStreamReader(stream, StandardCharsets.US_ASCII)) {
+            MoveScript script = new MoveScript(reader);
+            while (script.next()) {
+                if (game.applyMove(script.type(), script.row(), script.col())) {
+                    applied++;
+                } else {
+                    rejected++;
+                    if (firstRejectedLine == 0) firstRejectedLine = script.line();
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+
+            out.println("Script: " + (path.equals("-") ? "<stdin>" : path) + " (" + rows + "x" + cols + ")");
+            out.println("Moves applied: " + applied + ", rejected: " + rejected +
+                        ", malformed lines: " + script.malformed());
+            if (firstRejectedLine > 0) {
+                out.println("First rejected move on line " + firstRejectedLine);
+            }
+            if (script.firstMalformedLine() > 0) {
+                out.println("First malformed line: " + script.firstMalformedLine());
+            }
+            printResult(game, out);
+            out.println("Scores: " + player1.getName() + ": " + player1.getScore() +
+                        ", " + player2.getName() + ": " + player2.getScore());
+            double seconds = elapsed / 1e9;
+            out.printf("Time: %.3f ms (%.0f moves/s)%n", elapsed / 1e6,
+                       seconds > 0 ? (applied + rejected) / seconds : 0.0);
+            if (metrics) {
+                out.println("Metrics: " + Metrics.statsLine());
+            }
+        }
+    }
+
+    private static void printResult(DotsAndBoxesGame game, PrintStream out) {
+        if (!game.isWin()) {
+            out.println("Result: unfinished, " + game.getCurrentPlayer().getName() + " to move");
+        } else if (game.isTie()) {
+            out.println("Result: tie");
+        } else {
+            out.println("Result: " + game.getWinner().getName() + " wins");
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package puzzles.core;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -10,8 +12,44 @@ public interface Board {
     int rows();
     int cols();
 
-    /** Return an immutable snapshot of the board as a row-major 2D list of integers. */
-    List<List<Integer>> asGrid();
+    /** Value of a single cell (0-based row/col). Primitive access with no allocation. */
+    int valueAt(int row, int col);
+
+    /**
+     * Copy the board row-major into dst and return it.
+     * dst must hold at least rows() * cols() ints; pass null to allocate a new array.
+     */
+    default int[] copyGrid(int[] dst) {
+        int rows = rows();
+        int cols = cols();
+        if (dst == null) {
+            dst = new int[rows * cols];
+        } else if (dst.length < rows * cols) {
+            throw new IllegalArgumentException("Destination array too small");
+        }
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                dst[r * cols + c] = valueAt(r, c);
+            }
+        }
+        return dst;
+    }
+
+    /**
+     * Return an immutable snapshot of the board as a row-major 2D list of integers.
+     * Compatibility adapter over valueAt; it boxes every cell, so prefer valueAt or copyGrid.
+     */
+    default List<List<Integer>> asGrid() {
+        List<List<Integer>> grid = new ArrayList<>(rows());
+        for (int r = 0; r < rows(); r++) {
+            List<Integer> row = new ArrayList<>(cols());
+            for (int c = 0; c < cols(); c++) {
+                row.add(valueAt(r, c));
+            }
+            grid.add(Collections.unmodifiableList(row));
+        }
+        return Collections.unmodifiableList(grid);
+    }
 
     /** Is the board in a game-defined goal state? */
     boolean isSolved();
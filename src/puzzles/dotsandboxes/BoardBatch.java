@@ -0,0 +1,239 @@
+package puzzles.dotsandboxes;
+
+import java.util.Arrays;
+
+/**
+ * Up to 64 independent dots and boxes games of one size, advanced in lock-step for bulk
+ * work such as random playouts or validating archived games.
+ * State is bit-sliced: edges[e] holds edge e of every game, bit b for lane b, so the
+ * four-edge box test is a single AND across all lanes. Edge indices match
+ * {@link DotsAndBoxesBoard#edgeIndex(char, int, int)}; box ids are r * cols + c.
+ * Not thread-safe; use one batch per thread.
+ */
+public final class BoardBatch {
+    public static final int MAX_LANES = 64;
+
+    private final int m;
+    private final int n;
+    private final int edgeCount;
+    private final int lanes;
+    private final long laneMask;
+    private final int[][] boxEdges; // box -> top, bottom, left, right
+
+    private final long[] edges;
+    private final long[] owned;     // owned[box] bit b: box is claimed on lane b
+    private final long[] ownedByP2; // ownedByP2[box] bit b: player 2 claimed it on lane b
+    private long p2ToMove;
+    private long invalid;           // lanes frozen after an illegal move
+    private final int[] score1;
+    private final int[] score2;
+
+    // Per-lane random playout state: unclaimed edges (swap-remove) and where each one sits
+    private final int[][] free;
+    private final int[][] freeSlot;
+    private final int[] freeCount;
+
+    public BoardBatch(int rows, int cols, int lanes) {
+        if (rows < 2 || rows > 9 || cols < 2 || cols > 9) {
+            throw new IllegalArgumentException("Size must be between 2x2 and 9x9");
+        }
+        if (lanes < 1 || lanes > MAX_LANES) {
+            throw new IllegalArgumentException("Lanes must be between 1 and " + MAX_LANES);
+        }
+        this.m = rows;
+        this.n = cols;
+        this.edgeCount = (m + 1) * n + m * (n + 1);
+        this.lanes = lanes;
+        this.laneMask = lanes == 64 ? -1L : (1L << lanes) - 1;
+
+        int hCount = (m + 1) * n;
+        this.boxEdges = new int[m * n][];
+        for (int r = 0; r < m; r++) {
+            for (int c = 0; c < n; c++) {
+                int left = hCount + r * (n + 1) + c;
+                boxEdges[r * n + c] = new int[] {r * n + c, (r + 1) * n + c, left, left + 1};
+            }
+        }
+
+        this.edges = new long[edgeCount];
+        this.owned = new long[m * n];
+        this.ownedByP2 = new long[m * n];
+        this.score1 = new int[lanes];
+        this.score2 = new int[lanes];
+        this.free = new int[lanes][edgeCount];
+        this.freeSlot = new int[lanes][edgeCount];
+        this.freeCount = new int[lanes];
+        reset();
+    }
+
+    /** Empty every board; player 1 moves first everywhere. */
+    public void reset() {
+        Arrays.fill(edges, 0);
+        Arrays.fill(owned, 0);
+        Arrays.fill(ownedByP2, 0);
+        Arrays.fill(score1, 0);
+        Arrays.fill(score2, 0);
+        p2ToMove = 0;
+        invalid = 0;
+        for (int b = 0; b < lanes; b++) {
+            for (int e = 0; e < edgeCount; e++) {
+                free[b][e] = e;
+                freeSlot[b][e] = e;
+            }
+            freeCount[b] = edgeCount;
+        }
+    }
+
+    public int rows() {
+        return m;
+    }
+
+    public int cols() {
+        return n;
+    }
+
+    public int lanes() {
+        return lanes;
+    }
+
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Claim moves[b] on every lane b in active (lanes that are finished or invalid are skipped).
+     * A lane whose edge is out of range or already taken is frozen and reported by invalid().
+     * Returns the lanes whose move completed a box; those players move again.
+     */
+    public long step(int[] moves, long active) {
+        active &= laneMask & ~invalid & ~finished();
+        for (long bits = active; bits != 0; bits &= bits - 1) {
+            int b = Long.numberOfTrailingZeros(bits);
+            int e = moves[b];
+            long bit = 1L << b;
+            if (e < 0 || e >= edgeCount || (edges[e] & bit) != 0) {
+                invalid |= bit;
+                active &= ~bit;
+                continue;
+            }
+            edges[e] |= bit;
+            removeFree(b, e);
+        }
+        return settle(active);
+    }
+
+    /**
+     * Every active lane claims a uniformly random free edge.
+     * seed is advanced in place (one xorshift state per lane, seed.length >= lanes).
+     * Returns the lanes whose move completed a box.
+     */
+    public long stepRandom(long[] seed, long active) {
+        active &= laneMask & ~invalid & ~finished();
+        for (long bits = active; bits != 0; bits &= bits - 1) {
+            int b = Long.numberOfTrailingZeros(bits);
+            long x = seed[b];
+            x ^= x << 13;
+            x ^= x >>> 7;
+            x ^= x << 17;
+            seed[b] = x;
+            int e = free[b][(int) ((x >>> 1) % freeCount[b])];
+            edges[e] |= 1L << b;
+            removeFree(b, e);
+        }
+        return settle(active);
+    }
+
+    /** Play every lane to the end with random moves. seed as for stepRandom; zeros are replaced. */
+    public void playout(long[] seed) {
+        for (int b = 0; b < lanes; b++) {
+            if (seed[b] == 0) seed[b] = 0x9E3779B97F4A7C15L * (b + 1);
+        }
+        long live = laneMask & ~invalid;
+        while ((live & ~finished()) != 0) {
+            stepRandom(seed, live);
+        }
+    }
+
+    // Box completion for all lanes at once, then scores and turn order
+    private long settle(long active) {
+        long scored = 0;
+        for (int box = 0; box < boxEdges.length; box++) {
+            int[] e = boxEdges[box];
+            long complete = edges[e[0]] & edges[e[1]] & edges[e[2]] & edges[e[3]];
+            long fresh = complete & ~owned[box];
+            if (fresh == 0) continue;
+            owned[box] |= fresh;
+            long byP2 = fresh & p2ToMove;
+            ownedByP2[box] |= byP2;
+            scored |= fresh;
+            // Completions are rare (m * n per game), so per-lane counting is cheap here
+            for (long bits = fresh; bits != 0; bits &= bits - 1) {
+                int b = Long.numberOfTrailingZeros(bits);
+                if ((byP2 & (1L << b)) != 0) score2[b]++; else score1[b]++;
+            }
+        }
+        // Extra-turn rule: only lanes that completed nothing pass the move
+        p2ToMove ^= active & ~scored;
+        return scored;
+    }
+
+    private void removeFree(int b, int e) {
+        int slot = freeSlot[b][e];
+        int last = free[b][--freeCount[b]];
+        free[b][slot] = last;
+        freeSlot[b][last] = slot;
+    }
+
+    /** Lanes whose boards are full. */
+    public long finished() {
+        long all = laneMask;
+        for (long o : owned) {
+            all &= o;
+        }
+        return all;
+    }
+
+    /** Lanes frozen by an illegal move. */
+    public long invalid() {
+        return invalid;
+    }
+
+    /** Bit b set if edge is claimed on lane b. */
+    long edgeLanes(int edge) {
+        return edges[edge];
+    }
+
+    public boolean isEdgeClaimed(int lane, int edge) {
+        checkLane(lane);
+        return (edges[edge] & (1L << lane)) != 0;
+    }
+
+    /** 0 if the box is unclaimed on this lane, otherwise the owning player (1 or 2). */
+    public int ownerOf(int lane, int box) {
+        checkLane(lane);
+        long bit = 1L << lane;
+        if ((owned[box] & bit) == 0) return 0;
+        return (ownedByP2[box] & bit) != 0 ? 2 : 1;
+    }
+
+    public int getScore1(int lane) {
+        checkLane(lane);
+        return score1[lane];
+    }
+
+    public int getScore2(int lane) {
+        checkLane(lane);
+        return score2[lane];
+    }
+
+    public boolean isPlayer2ToMove(int lane) {
+        checkLane(lane);
+        return (p2ToMove & (1L << lane)) != 0;
+    }
+
+    private void checkLane(int lane) {
+        if (lane < 0 || lane >= lanes) {
+            throw new IndexOutOfBoundsException("Lane " + lane + " of " + lanes);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package puzzles.dotsandboxes;
+
+import puzzles.core.Board;
+
+/**
+ * Immutable dots and boxes position, including the scores and the player to move.
+ * Edges are packed one bit each into longs (horizontals first, then verticals, as in
+ * {@link DotsAndBoxesBoard#edgeIndex(char, int, int)}); box owners are player numbers
+ * (1 or 2, 0 if unclaimed) in a flat byte array.
+ * Arrays are never written after construction. Each move copies the edge words (at most
+ * three longs on a 9x9 board) and copies the owner array only when it completes a box,
+ * so any thread can read a snapshot without locking.
+ */
+public final class BoardSnapshot implements Board {
+    private final int m; // rows of boxes
+    private final int n; // cols of boxes
+    private final long[] edges;
+    private final byte[] owner; // owner[r * n + c] => player 1 or 2, 0 if unclaimed
+    private final int boxesClaimed;
+    private final int score1;
+    private final int score2;
+    private final int nextPlayer; // 0 => player 1 to move, 1 => player 2
+    private final long moves;
+    private final int lastBox0; // boxes completed by the move that produced this position, or -1
+    private final int lastBox1;
+
+    private BoardSnapshot(int m, int n, long[] edges, byte[] owner, int score1, int score2,
+                          int nextPlayer, long moves, int lastBox0, int lastBox1) {
+        this.m = m;
+        this.n = n;
+        this.edges = edges;
+        this.owner = owner;
+        this.boxesClaimed = score1 + score2;
+        this.score1 = score1;
+        this.score2 = score2;
+        this.nextPlayer = nextPlayer;
+        this.moves = moves;
+        this.lastBox0 = lastBox0;
+        this.lastBox1 = lastBox1;
+    }
+
+    /** Empty m x n board. */
+    static BoardSnapshot empty(int m, int n) {
+        int edgeCount = (m + 1) * n + m * (n + 1);
+        return new BoardSnapshot(m, n, new long[(edgeCount + 63) >>> 6], new byte[m * n], 0, 0, 0, 0, -1, -1);
+    }
+
+    /**
+     * Position after player (1 or 2) claims a free edge. Completing a box keeps the turn.
+     * The caller must have checked the edge is in range and unclaimed.
+     */
+    BoardSnapshot withEdge(int edge, int player) {
+        long[] nextEdges = edges.clone();
+        nextEdges[edge >>> 6] |= 1L << edge;
+
+        int box0 = -1;
+        int box1 = -1;
+        int hCount = (m + 1) * n;
+        if (edge < hCount) {
+            int r = edge / n, c = edge % n;
+            if (r - 1 >= 0 && isBoxComplete(nextEdges, r - 1, c)) box0 = (r - 1) * n + c;
+            if (r < m && isBoxComplete(nextEdges, r, c)) box1 = r * n + c;
+        } else {
+            int e = edge - hCount;
+            int r = e / (n + 1), c = e % (n + 1);
+            if (c - 1 >= 0 && isBoxComplete(nextEdges, r, c - 1)) box0 = r * n + c - 1;
+            if (c < n && isBoxComplete(nextEdges, r, c)) box1 = r * n + c;
+        }
+        if (box0 < 0) {
+            box0 = box1;
+            box1 = -1;
+        }
+
+        byte[] nextOwner = owner;
+        int made = 0;
+        if (box0 >= 0) {
+            nextOwner = owner.clone();
+            nextOwner[box0] = (byte) player;
+            made++;
+            if (box1 >= 0) {
+                nextOwner[box1] = (byte) player;
+                made++;
+            }
+        }
+        int nextScore1 = player == 1 ? score1 + made : score1;
+        int nextScore2 = player == 2 ? score2 + made : score2;
+        int next = made > 0 ? player - 1 : 2 - player;
+        return new BoardSnapshot(m, n, nextEdges, nextOwner, nextScore1, nextScore2, next,
+                                 moves + 1, box0, box1);
+    }
+
+    // A box is complete when its top, bottom, left and right edges are all set
+    private boolean isBoxComplete(long[] bits, int r, int c) {
+        int hCount = (m + 1) * n;
+        return isSet(bits, r * n + c) && isSet(bits, (r + 1) * n + c)
+            && isSet(bits, hCount + r * (n + 1) + c) && isSet(bits, hCount + r * (n + 1) + c + 1);
+    }
+
+    private static boolean isSet(long[] bits, int i) {
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    @Override
+    public int rows() {
+        return m;
+    }
+
+    @Override
+    public int cols() {
+        return n;
+    }
+
+    public int edgeCount() {
+        return (m + 1) * n + m * (n + 1);
+    }
+
+    /** Flat edge index for 1-based UI coordinates, or -1 if the edge is off the board. */
+    int edgeIndexOrNegative(char type, int r, int c) {
+        type = Character.toUpperCase(type);
+        if (type == 'H') {
+            if (r < 1 || r > m + 1 || c < 1 || c > n) return -1;
+            return (r - 1) * n + (c - 1);
+        } else if (type == 'V') {
+            if (r < 1 || r > m || c < 1 || c > n + 1) return -1;
+            return (m + 1) * n + (r - 1) * (n + 1) + (c - 1);
+        }
+        return -1;
+    }
+
+    /** Edges still free to claim. */
+    public int getFreeEdges() {
+        // Every snapshot is built from the empty board one claim at a time
+        return edgeCount() - (int) moves;
+    }
+
+    /** Bits 64i..64i+63 of the packed edge set. */
+    long edgeWord(int i) {
+        return edges[i];
+    }
+
+    /** UI name of an edge, e.g. "H 1 2" (1-based, as typed by players). */
+    public String describeEdge(int edge) {
+        if (edge < 0 || edge >= edgeCount()) {
+            throw new IndexOutOfBoundsException("Edge " + edge + " is off the board");
+        }
+        int hCount = (m + 1) * n;
+        if (edge < hCount) {
+            return "H " + (edge / n + 1) + " " + (edge % n + 1);
+        }
+        int e = edge - hCount;
+        return "V " + (e / (n + 1) + 1) + " " + (e % (n + 1) + 1);
+    }
+
+    public boolean isEdgeClaimed(int edge) {
+        if (edge < 0 || edge >= edgeCount()) {
+            throw new IndexOutOfBoundsException("Edge " + edge + " is off the board");
+        }
+        return isSet(edges, edge);
+    }
+
+    /** Player (1 or 2) owning the box at a 0-based box coordinate, or 0 if unclaimed. */
+    public int ownerAt(int row, int col) {
+        if (row < 0 || row >= m || col < 0 || col >= n) {
+            throw new IndexOutOfBoundsException("Box (" + row + "," + col + ") is off the board");
+        }
+        return owner[row * n + col];
+    }
+
+    public int getBoxesClaimed() {
+        return boxesClaimed;
+    }
+
+    public int getScore1() {
+        return score1;
+    }
+
+    public int getScore2() {
+        return score2;
+    }
+
+    /** Player to move as an index (0 for player 1), as in {@link MoveDelta#getNextPlayer()}. */
+    public int getNextPlayer() {
+        return nextPlayer;
+    }
+
+    /** Number of edges claimed to reach this position; lines up with {@link MoveDelta#getSequence()}. */
+    public long getMoveCount() {
+        return moves;
+    }
+
+    /** Box id completed by the move that produced this position, or -1. i is 0 or 1. */
+    public int lastCompletedBox(int i) {
+        return i == 0 ? lastBox0 : lastBox1;
+    }
+
+    public boolean isFull() {
+        return boxesClaimed == m * n;
+    }
+
+    // Cells are box ids (r * cols + c), matching the ids used by MoveDelta
+    @Override
+    public int valueAt(int row, int col) {
+        if (row < 0 || row >= m || col < 0 || col >= n) {
+            throw new IndexOutOfBoundsException("Cell (" + row + "," + col + ") is off the board");
+        }
+        return row * n + col;
+    }
+
+    @Override
+    public int[] copyGrid(int[] dst) {
+        int cells = m * n;
+        if (dst == null) {
+            dst = new int[cells];
+        } else if (dst.length < cells) {
+            throw new IllegalArgumentException("Destination array too small");
+        }
+        for (int i = 0; i < cells; i++) {
+            dst[i] = i;
+        }
+        return dst;
+    }
+
+    @Override
+    public boolean isSolved() {
+        return isFull();
+    }
+
+    /** Board text with p1 and p2 shown in the boxes each player owns. */
+    public String render(char p1, char p2) {
+        int hCount = (m + 1) * n;
+        // Header is ~100 chars, each grid line is 3 + 4n + 2 chars
+        StringBuilder sb = new StringBuilder(128 + (2 * m + 1) * (4 * n + 5));
+        sb.append("   Dots & Boxes ").append(m).append('x').append(n).append('\n');
+        sb.append("   Input: H r c  (1<=r<=").append(m + 1).append(", 1<=c<=").append(n).append(")\n");
+        sb.append("          V r c  (1<=r<=").append(m).append(", 1<=c<=").append(n + 1).append(")\n\n");
+
+        // Print dots with horizontal edges and boxes rows
+        for (int r = 0; r <= m; r++) {
+            // Dots row with horizontal edges
+            sb.append("   ");
+            for (int c = 0; c < n; c++) {
+                sb.append('+');
+                sb.append(isSet(edges, r * n + c) ? "---" : "   ");
+            }
+            sb.append("+\n");
+
+            if (r < m) {
+                // Boxes row with vertical edges and owners
+                sb.append("   ");
+                for (int c = 0; c <= n; c++) {
+                    sb.append(isSet(edges, hCount + r * (n + 1) + c) ? '|' : ' ');
+                    if (c < n) {
+                        int o = owner[r * n + c];
+                        char display = o == 0 ? ' ' : o == 1 ? p1 : p2;
+                        sb.append(' ').append(display).append(' ');
+                    }
+                }
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -1,23 +1,22 @@
 package puzzles.dotsandboxes;
 
 import puzzles.core.Board;
-
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import puzzles.metrics.BoxesCompletedEvent;
+import puzzles.metrics.Metrics;
+import puzzles.metrics.RenderEvent;
 
 /**
  * Board implementation for Dots and Boxes game.
- * Uses a clean 2D array approach for edges and box ownership.
+ * Holds the current position as an immutable {@link BoardSnapshot}; each claim swaps in
+ * a new snapshot built from a copy of the few edge words. Moves come from a single game
+ * thread, while any thread may call {@link #snapshot()} without locking.
  */
 public final class DotsAndBoxesBoard implements Board {
     // m x n boxes => (m+1) x n horizontal edges, m x (n+1) vertical edges
     private final int m; // rows of boxes
     private final int n; // cols of boxes
 
-    private final boolean[][] h; // h[r][c] => edge between (r,c) and (r,c+1), r in [0..m], c in [0..n-1]
-    private final boolean[][] v; // v[r][c] => edge between (r,c) and (r+1,c), r in [0..m-1], c in [0..n]
-    private final char[][] owner; // owner[r][c] => box owner initial or '\0'
+    private volatile BoardSnapshot state;
 
     public DotsAndBoxesBoard(int rows, int cols) {
         if (rows < 2 || rows > 9 || cols < 2 || cols > 9) {
@@ -25,132 +24,97 @@ public final class DotsAndBoxesBoard implements Board {
         }
         this.m = rows;
         this.n = cols;
-        this.h = new boolean[m + 1][n];
-        this.v = new boolean[m][n + 1];
-        this.owner = new char[m][n];
-        for (char[] row : owner) {
-            for (int i = 0; i < row.length; i++) {
-                row[i] = '\0';
-            }
-        }
+        this.state = BoardSnapshot.empty(m, n);
     }
 
-    public int rows() { 
-        return m; 
+    public int rows() {
+        return m;
     }
-    
-    public int cols() { 
-        return n; 
+
+    public int cols() {
+        return n;
     }
 
-    public boolean isFull() {
-        // Full when all boxes have owners
-        for (int r = 0; r < m; r++) {
-            for (int c = 0; c < n; c++) {
-                if (owner[r][c] == '\0') return false;
-            }
-        }
-        return true;
+    /** Current position. O(1), safe to call from any thread, never changes once returned. */
+    public BoardSnapshot snapshot() {
+        return state;
     }
 
-    // Claim an edge. type 'H' or 'V'. r,c are 1-based from the UI.
-    // Returns the number of boxes completed by this claim (0,1, or 2).
-    public int claim(char type, int r, int c, char playerInitial) {
-        type = Character.toUpperCase(type);
-        if (type == 'H') {
-            // UI r in [1..m+1], c in [1..n]
-            int rr = r - 1, cc = c - 1;
-            if (rr < 0 || rr > m || cc < 0 || cc >= n) throw new IllegalArgumentException("Out of range");
-            if (h[rr][cc]) throw new IllegalStateException("Edge already taken");
-            h[rr][cc] = true;
-            return fillBoxesAfterHorizontal(rr, cc, playerInitial);
-        } else if (type == 'V') {
-            // UI r in [1..m], c in [1..n+1]
-            int rr = r - 1, cc = c - 1;
-            if (rr < 0 || rr >= m || cc < 0 || cc > n) throw new IllegalArgumentException("Out of range");
-            if (v[rr][cc]) throw new IllegalStateException("Edge already taken");
-            v[rr][cc] = true;
-            return fillBoxesAfterVertical(rr, cc, playerInitial);
-        } else {
+    /** Total number of edges: (m+1) x n horizontals followed by m x (n+1) verticals. */
+    public int edgeCount() {
+        return (m + 1) * n + m * (n + 1);
+    }
+
+    /**
+     * Flat index of an edge given 1-based UI coordinates.
+     * Horizontal edges come first in row-major order, then vertical edges.
+     */
+    public int edgeIndex(char type, int r, int c) {
+        char t = Character.toUpperCase(type);
+        if (t != 'H' && t != 'V') {
             throw new IllegalArgumentException("Type must be H or V");
         }
+        int edge = state.edgeIndexOrNegative(t, r, c);
+        if (edge < 0) throw new IllegalArgumentException("Out of range");
+        return edge;
     }
 
-    private int fillBoxesAfterHorizontal(int rr, int cc, char p) {
-        int made = 0;
-        // Box above: (rr-1, cc)
-        if (rr - 1 >= 0 && isBoxComplete(rr - 1, cc) && owner[rr - 1][cc] == '\0') {
-            owner[rr - 1][cc] = p; made++;
-        }
-        // Box below: (rr, cc)
-        if (rr < m && isBoxComplete(rr, cc) && owner[rr][cc] == '\0') {
-            owner[rr][cc] = p; made++;
-        }
-        return made;
+    /**
+     * Box id (r * cols + c) completed by the most recent claim, or -1.
+     * i is 0 or 1 since one edge can close at most two boxes.
+     */
+    public int lastCompletedBox(int i) {
+        return state.lastCompletedBox(i);
     }
 
-    private int fillBoxesAfterVertical(int rr, int cc, char p) {
-        int made = 0;
-        // Box left:  (rr, cc-1)
-        if (cc - 1 >= 0 && isBoxComplete(rr, cc - 1) && owner[rr][cc - 1] == '\0') {
-            owner[rr][cc - 1] = p; made++;
-        }
-        // Box right: (rr, cc)
-        if (cc < n && isBoxComplete(rr, cc) && owner[rr][cc] == '\0') {
-            owner[rr][cc] = p; made++;
+    public boolean isFull() {
+        // Full when all boxes have owners
+        return state.isFull();
+    }
+
+    /** Is this edge on the board and still unclaimed? r,c are 1-based from the UI. */
+    public boolean canClaim(char type, int r, int c) {
+        BoardSnapshot s = state;
+        int edge = s.edgeIndexOrNegative(type, r, c);
+        return edge >= 0 && !s.isEdgeClaimed(edge);
+    }
+
+    // Claim an edge. type 'H' or 'V'. r,c are 1-based from the UI.
+    // player is 1 or 2. Returns the number of boxes completed by this claim (0,1, or 2).
+    public int claim(char type, int r, int c, int player) {
+        int edge = edgeIndex(type, r, c);
+        BoardSnapshot s = state;
+        if (s.isEdgeClaimed(edge)) throw new IllegalStateException("Edge already taken");
+        if (player != 1 && player != 2) throw new IllegalArgumentException("Player must be 1 or 2");
+        BoardSnapshot next = s.withEdge(edge, player);
+        state = next;
+        int made = next.getBoxesClaimed() - s.getBoxesClaimed();
+        if (made > 0) {
+            Metrics.boxesCompleted(made);
+            if (Metrics.jfr()) BoxesCompletedEvent.emit(made, next.lastCompletedBox(0), next.lastCompletedBox(1));
         }
         return made;
     }
 
-    private boolean isBoxComplete(int r, int c) {
-        return h[r][c] && h[r + 1][c] && v[r][c] && v[r][c + 1];
+    public String render(char p1, char p2) {
+        RenderEvent event = Metrics.jfr() ? new RenderEvent() : null;
+        if (event != null) event.begin();
+        long start = Metrics.start();
+        String text = state.render(p1, p2);
+        Metrics.rendered(start);
+        if (event != null) event.finish("dots-and-boxes", text.length());
+        return text;
     }
 
-    public String render(char p1, char p2) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("   Dots & Boxes ").append(m).append("x").append(n).append("\n");
-        sb.append("   Input: H r c  (1<=r<=" + (m + 1) + ", 1<=c<=" + n + ")\n");
-        sb.append("          V r c  (1<=r<=" + m + ", 1<=c<=" + (n + 1) + ")\n\n");
-
-        // Print dots with horizontal edges and boxes rows
-        for (int r = 0; r <= m; r++) {
-            // Dots row with horizontal edges
-            sb.append("   ");
-            for (int c = 0; c < n; c++) {
-                sb.append("+");
-                sb.append(h[r][c] ? "---" : "   ");
-            }
-            sb.append("+\n");
-
-            if (r < m) {
-                // Boxes row with vertical edges and owners
-                sb.append("   ");
-                for (int c = 0; c <= n; c++) {
-                    sb.append(v[r][c] ? "|" : " ");
-                    if (c < n) {
-                        char o = owner[r][c];
-                        char display = (o == '\0') ? ' ' : o;
-                        sb.append(" ").append(display).append(" ");
-                    }
-                }
-                sb.append("\n");
-            }
-        }
-        return sb.toString();
+    // Cells are box ids (r * cols + c), matching the ids used by MoveDelta
+    @Override
+    public int valueAt(int row, int col) {
+        return state.valueAt(row, col);
     }
 
     @Override
-    public List<List<Integer>> asGrid() {
-        // For dots and boxes, we'll return a simple representation
-        List<List<Integer>> grid = new ArrayList<>();
-        for (int r = 0; r < m; r++) {
-            List<Integer> row = new ArrayList<>();
-            for (int c = 0; c < n; c++) {
-                row.add(r * n + c); // Box ID
-            }
-            grid.add(Collections.unmodifiableList(row));
-        }
-        return Collections.unmodifiableList(grid);
+    public int[] copyGrid(int[] dst) {
+        return state.copyGrid(dst);
     }
 
     @Override
@@ -3,6 +3,9 @@ package puzzles.dotsandboxes;
 import puzzles.core.Game;
 import puzzles.core.Player;
 import puzzles.core.Position;
+import puzzles.metrics.InvalidMoveEvent;
+import puzzles.metrics.Metrics;
+import puzzles.metrics.MoveAppliedEvent;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,12 +15,16 @@ import java.util.List;
  * Manages two players, turns, and game logic.
  */
 public final class DotsAndBoxesGame implements Game {
+    private static final String GAME = "dots-and-boxes";
+
     private DotsAndBoxesBoard board;
     private Player player1;
     private Player player2;
     private Player currentPlayer;
     private boolean gameStarted;
     private int currentPlayerIndex;
+    private MoveFeed feed;
+    private long moveCount;
 
     public DotsAndBoxesGame() {
         this.board = null;
@@ -26,6 +33,8 @@ public final class DotsAndBoxesGame implements Game {
         this.currentPlayer = null;
         this.gameStarted = false;
         this.currentPlayerIndex = 0;
+        this.feed = null;
+        this.moveCount = 0;
     }
 
     public void setPlayers(Player player1, Player player2) {
@@ -53,6 +62,8 @@ public final class DotsAndBoxesGame implements Game {
         this.currentPlayer = player1;
         this.currentPlayerIndex = 0;
         this.gameStarted = true;
+        this.feed = new MoveFeed(board, MoveFeed.DEFAULT_CAPACITY);
+        this.moveCount = 0;
     }
 
     @Override
@@ -90,20 +101,32 @@ public final class DotsAndBoxesGame implements Game {
         if (!gameStarted || board == null) {
             return false;
         }
+        MoveAppliedEvent event = Metrics.jfr() ? new MoveAppliedEvent() : null;
+        if (event != null) event.begin();
+        long start = Metrics.start();
+        // Reject bad input up front so scripted replays don't pay for exceptions
+        if (!board.canClaim(type, r, c)) {
+            Metrics.invalidMove();
+            if (Metrics.jfr()) InvalidMoveEvent.emit(GAME, type, r, c);
+            return false;
+        }
 
         try {
-            char playerInitial = currentPlayer.getInitials().charAt(0);
-            int boxesCompleted = board.claim(type, r, c, playerInitial);
+            int boxesCompleted = board.claim(type, r, c, currentPlayerIndex + 1);
             
             if (boxesCompleted > 0) {
                 // Player gets points and another turn
                 currentPlayer.addScore(boxesCompleted);
-                return true;
             } else {
                 // Switch to the other player
                 switchPlayer();
-                return true;
             }
+            feed.publish(new MoveDelta(moveCount++, board.edgeIndex(type, r, c),
+                    board.lastCompletedBox(0), board.lastCompletedBox(1),
+                    player1.getScore(), player2.getScore(), currentPlayerIndex));
+            Metrics.moveApplied(start);
+            if (event != null) event.finish(GAME, type, r, c, boxesCompleted);
+            return true;
         } catch (IllegalArgumentException | IllegalStateException e) {
             return false;
         }
@@ -149,6 +172,11 @@ public final class DotsAndBoxesGame implements Game {
         return isWin() && getWinner() == null;
     }
 
+    /** Spectator feed for the current game, or null before the first newGame. */
+    public MoveFeed getMoveFeed() {
+        return feed;
+    }
+
     public DotsAndBoxesBoard getBoard() {
         return board;
     }
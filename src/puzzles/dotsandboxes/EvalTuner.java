@@ -0,0 +1,373 @@
+package puzzles.dotsandboxes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Texel-style tuner for {@link Evaluator} weights.
+ * Self-play runs on a pool of threads, each playing 64 games at a time in lock-step on a
+ * {@link BoardBatch} (the same rules as {@link DotsAndBoxesGame}). Each position is streamed
+ * straight into that thread's float array of features along with the final result from the
+ * side to move's point of view. Playing and feature extraction work in arrays allocated once
+ * per thread, so no objects are created per move or per position.
+ * The weights are then fitted by logistic regression on those results (Newton steps, with the
+ * gradient and Hessian summed in parallel over the same arrays), so that sigmoid(evaluation)
+ * predicts the outcome.
+ */
+public final class EvalTuner {
+    // Self-play: Evaluator.selfPlayMove, which plays for chain control; sometimes any move
+    private static final double EXPLORE = 0.1;
+    // L2 penalty on the weights, keeps features that barely vary from running off
+    private static final double RIDGE = 1e-4;
+    private static final int MAX_STEPS = 50;
+    private static final double TOLERANCE = 1e-7;
+
+    private static final int F = Evaluator.FEATURES;
+
+    private final int rows;
+    private final int cols;
+    private final int edgeCount;
+
+    public EvalTuner(int rows, int cols) {
+        if (rows < 2 || rows > 9 || cols < 2 || cols > 9) {
+            throw new IllegalArgumentException("Size must be between 2x2 and 9x9");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.edgeCount = (rows + 1) * cols + rows * (cols + 1);
+    }
+
+    /** Fitted weights plus how well they and the starting weights predict the games. */
+    public static final class Result {
+        private final double[] start;
+        private final double[] weights;
+        private final long games;
+        private final long positions;
+        private final int steps;
+        private final double errorBefore;
+        private final double errorAfter;
+        private final double lossBefore;
+        private final double lossAfter;
+        private final long selfPlayNanos;
+        private final long fitNanos;
+
+        private Result(double[] start, double[] weights, long games, long positions, int steps,
+                       double[] before, double[] after, long selfPlayNanos, long fitNanos) {
+            this.start = start;
+            this.weights = weights;
+            this.games = games;
+            this.positions = positions;
+            this.steps = steps;
+            this.errorBefore = before[0];
+            this.lossBefore = before[1];
+            this.errorAfter = after[0];
+            this.lossAfter = after[1];
+            this.selfPlayNanos = selfPlayNanos;
+            this.fitNanos = fitNanos;
+        }
+
+        public double[] getStartWeights() {
+            return start.clone();
+        }
+
+        public double[] getWeights() {
+            return weights.clone();
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        public long getPositions() {
+            return positions;
+        }
+
+        /** Newton steps taken by the fit. */
+        public int getSteps() {
+            return steps;
+        }
+
+        /** Texel error: mean squared difference between sigmoid(eval) and the result. */
+        public double getErrorBefore() {
+            return errorBefore;
+        }
+
+        public double getErrorAfter() {
+            return errorAfter;
+        }
+
+        /** Mean log loss, the quantity the fit minimises (before the ridge term). */
+        public double getLossBefore() {
+            return lossBefore;
+        }
+
+        public double getLossAfter() {
+            return lossAfter;
+        }
+
+        public long getSelfPlayNanos() {
+            return selfPlayNanos;
+        }
+
+        public long getFitNanos() {
+            return fitNanos;
+        }
+    }
+
+    // One thread's positions: FEATURES floats each, and the result for the side to move
+    private static final class Chunk {
+        final float[] features;
+        final float[] outcome;
+        int size;
+        int games;
+
+        Chunk(int capacity) {
+            this.features = new float[capacity * F];
+            this.outcome = new float[capacity];
+        }
+    }
+
+    /**
+     * Play games self-play games split over threads, then fit weights starting from start.
+     * The same seed and thread count give the same result.
+     */
+    public Result run(int games, int threads, long seed, double[] start) {
+        if (games < 1) {
+            throw new IllegalArgumentException("Need at least one game");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread");
+        }
+        if (start == null || start.length != F) {
+            throw new IllegalArgumentException("Expected " + F + " starting weights");
+        }
+        threads = Math.min(threads, games);
+        // games / threads each, and one more for the first games % threads threads
+        final int base = games / threads;
+        final int extra = games % threads;
+        long perThread = base + (extra > 0 ? 1 : 0);
+        if (perThread * edgeCount * F > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many games per thread; use more threads");
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            long t0 = System.nanoTime();
+            List<Callable<Chunk>> players = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int count = base + (t < extra ? 1 : 0);
+                final long threadSeed = seed * 0x9E3779B97F4A7C15L + t + 1;
+                players.add(() -> selfPlay(count, threadSeed));
+            }
+            List<Chunk> chunks = new ArrayList<>();
+            long positions = 0;
+            long played = 0;
+            for (Future<Chunk> f : pool.invokeAll(players)) {
+                Chunk chunk = f.get();
+                chunks.add(chunk);
+                positions += chunk.size;
+                played += chunk.games;
+            }
+            if (played != games) {
+                throw new IllegalStateException("Self-play ran " + played + " of " + games + " games");
+            }
+            long t1 = System.nanoTime();
+
+            double[] w = start.clone();
+            double[] sums = pass(pool, chunks, w, positions);
+            double[] before = {sums[0], sums[1]};
+            int steps = 0;
+            while (steps < MAX_STEPS) {
+                double[] step = newtonStep(sums, w);
+                // Backtrack until the penalised loss goes down; full Newton steps can overshoot
+                double t = 1;
+                double[] trial = new double[F];
+                double[] trialSums;
+                while (true) {
+                    for (int f = 0; f < F; f++) {
+                        trial[f] = w[f] - t * step[f];
+                    }
+                    trialSums = pass(pool, chunks, trial, positions);
+                    if (objective(trialSums, trial) <= objective(sums, w) || t < 1e-6) break;
+                    t /= 2;
+                }
+                steps++;
+                double largest = 0;
+                for (int f = 0; f < F; f++) {
+                    largest = Math.max(largest, Math.abs(trial[f] - w[f]));
+                }
+                w = trial;
+                sums = trialSums;
+                if (largest < TOLERANCE) break;
+            }
+            long t2 = System.nanoTime();
+            return new Result(start.clone(), w, games, positions, steps, before,
+                              new double[] {sums[0], sums[1]}, t1 - t0, t2 - t1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while tuning", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tuning worker failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private Chunk selfPlay(int games, long seed) {
+        Chunk chunk = new Chunk(games * edgeCount);
+        BoardBatch batch = new BoardBatch(rows, cols, Math.min(games, BoardBatch.MAX_LANES));
+        Evaluator evaluator = new Evaluator(rows, cols);
+        int[] moves = new int[batch.lanes()];
+        int[] candidates = new int[edgeCount];
+        long x = seed == 0 ? 1 : seed;
+
+        for (int played = 0; played < games; played += batch.lanes()) {
+            batch.reset();
+            int lanes = Math.min(batch.lanes(), games - played);
+            long live = lanes == 64 ? -1L : (1L << lanes) - 1;
+            int first = chunk.size;
+            for (long active = live & ~batch.finished(); active != 0; active = live & ~batch.finished()) {
+                for (long bits = active; bits != 0; bits &= bits - 1) {
+                    int lane = Long.numberOfTrailingZeros(bits);
+                    long bit = 1L << lane;
+                    evaluator.extract(batch, lane, chunk.features, chunk.size * F);
+                    // Lane and player to move, until the result is known
+                    chunk.outcome[chunk.size++] = 2 * lane + (batch.isPlayer2ToMove(lane) ? 1 : 0);
+
+                    x ^= x << 13;
+                    x ^= x >>> 7;
+                    x ^= x << 17;
+                    boolean explore = (x >>> 11) * 0x1.0p-53 < EXPLORE;
+                    x ^= x << 13;
+                    x ^= x >>> 7;
+                    x ^= x << 17;
+                    if (explore) {
+                        int k = 0;
+                        for (int e = 0; e < edgeCount; e++) {
+                            if ((batch.edgeLanes(e) & bit) == 0) candidates[k++] = e;
+                        }
+                        moves[lane] = candidates[(int) ((x >>> 1) % k)];
+                    } else {
+                        // extract() just analysed this lane, so the policy sees the current position
+                        moves[lane] = evaluator.selfPlayMove(x);
+                    }
+                }
+                batch.step(moves, active);
+                if (batch.invalid() != 0) {
+                    throw new IllegalStateException("Self-play picked an illegal edge");
+                }
+            }
+            for (int i = first; i < chunk.size; i++) {
+                int tag = (int) chunk.outcome[i];
+                int lane = tag >>> 1;
+                int diff = batch.getScore1(lane) - batch.getScore2(lane);
+                boolean player1ToMove = (tag & 1) == 0;
+                chunk.outcome[i] = diff == 0 ? 0.5f : (diff > 0) == player1ToMove ? 1 : 0;
+            }
+            chunk.games += lanes;
+        }
+        return chunk;
+    }
+
+    /**
+     * One parallel sweep over every position at weights w.
+     * Returns mean squared error, mean log loss, then the mean gradient (F) and Hessian (F * F)
+     * of the log loss.
+     */
+    private static double[] pass(ExecutorService pool, List<Chunk> chunks, final double[] w, long positions)
+            throws InterruptedException, ExecutionException {
+        List<Callable<double[]>> tasks = new ArrayList<>();
+        for (final Chunk chunk : chunks) {
+            tasks.add(() -> sweep(chunk, w));
+        }
+        double[] total = new double[2 + F + F * F];
+        for (Future<double[]> f : pool.invokeAll(tasks)) {
+            double[] part = f.get();
+            for (int i = 0; i < total.length; i++) {
+                total[i] += part[i];
+            }
+        }
+        for (int i = 0; i < total.length; i++) {
+            total[i] /= Math.max(1, positions);
+        }
+        return total;
+    }
+
+    private static double[] sweep(Chunk chunk, double[] w) {
+        double[] sums = new double[2 + F + F * F];
+        int g = 2;
+        int h = 2 + F;
+        float[] x = chunk.features;
+        for (int i = 0; i < chunk.size; i++) {
+            int base = i * F;
+            double z = 0;
+            for (int f = 0; f < F; f++) {
+                z += w[f] * x[base + f];
+            }
+            double p = 1 / (1 + Math.exp(-z));
+            double y = chunk.outcome[i];
+            sums[0] += (y - p) * (y - p);
+            // Log loss, written to stay finite for large |z|
+            sums[1] += Math.max(z, 0) - y * z + Math.log1p(Math.exp(-Math.abs(z)));
+            double r = p - y;
+            double s = p * (1 - p);
+            for (int a = 0; a < F; a++) {
+                double xa = x[base + a];
+                sums[g + a] += r * xa;
+                for (int b = a; b < F; b++) {
+                    sums[h + a * F + b] += s * xa * x[base + b];
+                }
+            }
+        }
+        return sums;
+    }
+
+    private static double objective(double[] sums, double[] w) {
+        double penalty = 0;
+        for (double v : w) {
+            penalty += v * v;
+        }
+        return sums[1] + RIDGE / 2 * penalty;
+    }
+
+    // Solve (H + ridge) d = g + ridge * w by Gaussian elimination with partial pivoting
+    private static double[] newtonStep(double[] sums, double[] w) {
+        double[][] a = new double[F][F + 1];
+        for (int i = 0; i < F; i++) {
+            for (int j = 0; j < F; j++) {
+                a[i][j] = sums[2 + F + Math.min(i, j) * F + Math.max(i, j)];
+            }
+            a[i][i] += RIDGE;
+            a[i][F] = sums[2 + i] + RIDGE * w[i];
+        }
+        for (int col = 0; col < F; col++) {
+            int pivot = col;
+            for (int i = col + 1; i < F; i++) {
+                if (Math.abs(a[i][col]) > Math.abs(a[pivot][col])) pivot = i;
+            }
+            double[] tmp = a[col];
+            a[col] = a[pivot];
+            a[pivot] = tmp;
+            for (int i = col + 1; i < F; i++) {
+                double factor = a[i][col] / a[col][col];
+                for (int j = col; j <= F; j++) {
+                    a[i][j] -= factor * a[col][j];
+                }
+            }
+        }
+        double[] d = new double[F];
+        for (int i = F - 1; i >= 0; i--) {
+            double v = a[i][F];
+            for (int j = i + 1; j < F; j++) {
+                v -= a[i][j] * d[j];
+            }
+            d[i] = v / a[i][i];
+        }
+        return d;
+    }
+}
@@ -0,0 +1,360 @@
+package puzzles.dotsandboxes;
+
+import java.util.Arrays;
+
+/**
+ * Static evaluation of a dots and boxes position from the side to move's point of view.
+ * The value is a weighted sum of a few classic features and reads as the log-odds that the
+ * side to move wins, so weights fitted by {@link EvalTuner} plug straight in.
+ * Positions come from a {@link BoardSnapshot} or one lane of a {@link BoardBatch}.
+ * All working state lives in arrays sized once per board, so evaluating or extracting
+ * features never allocates. Not thread-safe; use one evaluator per thread.
+ */
+public final class Evaluator {
+    /** Boxes ahead (side to move minus opponent). */
+    public static final int SCORE_DIFF = 0;
+    /** Boxes with three sides drawn, which the side to move can take right now. */
+    public static final int CAPTURABLE = 1;
+    /** +1 if the number of safe moves is odd (the side to move plays the last one), else -1. */
+    public static final int SAFE_PARITY = 2;
+    /** Chains of three or more boxes. */
+    public static final int LONG_CHAINS = 3;
+    /** Chains of one or two boxes. */
+    public static final int SHORT_CHAINS = 4;
+    /**
+     * +1 if dots plus long chains has the parity the side to move wants, else -1; 0 before
+     * any long chain has formed, when the sign would only say which player is to move.
+     */
+    public static final int LONG_CHAIN_RULE = 5;
+    /** Safe-move parity times the boxes in long chains: what control is currently worth. */
+    public static final int CONTROL = 6;
+    public static final int FEATURES = 7;
+
+    private static final String[] NAMES = {
+        "score-diff", "capturable", "safe-parity", "long-chains", "short-chains", "long-chain-rule", "control"
+    };
+
+    // Fitted by EvalTuner on 50000 4x4 self-play games (App --tune 4 4 --games 50000 --seed 1)
+    private static final double[] DEFAULT_WEIGHTS = {0.31, 0.38, -0.083, -0.045, -0.002, 0.012, 0.033};
+
+    // Move classes for self-play policies, best first
+    static final int CAPTURE = 2;
+    static final int SAFE = 1;
+    static final int SACRIFICE = 0;
+
+    private final int m;
+    private final int n;
+    private final int edgeCount;
+    private final int dots;
+    private final int[] boxEdges; // box b => edges 4b..4b+3 (top, bottom, left, right)
+    private final int[] edgeBoxA; // boxes on either side of an edge, -1 off the board
+    private final int[] edgeBoxB;
+    private final double[] weights;
+
+    // Scratch for one analysis
+    private final long[] words;   // edge bits of the position being analysed
+    private final int[] sides;    // drawn sides per box
+    private final int[] mark;     // mark[b] == stamp => box already in a chain this analysis
+    private final int[] stack;
+    private final int[] chainOf;  // length of the chain a two-sided box belongs to
+    private final int[] candidates;
+    private int stamp;
+    private int capturable;
+    private int safeMoves;
+    private int longChains;
+    private int shortChains;
+    private int longChainBoxes;
+
+    public Evaluator(int rows, int cols) {
+        this(rows, cols, DEFAULT_WEIGHTS);
+    }
+
+    public Evaluator(int rows, int cols, double[] weights) {
+        if (rows < 2 || rows > 9 || cols < 2 || cols > 9) {
+            throw new IllegalArgumentException("Size must be between 2x2 and 9x9");
+        }
+        if (weights == null || weights.length != FEATURES) {
+            throw new IllegalArgumentException("Expected " + FEATURES + " weights");
+        }
+        this.m = rows;
+        this.n = cols;
+        this.edgeCount = (m + 1) * n + m * (n + 1);
+        this.dots = (m + 1) * (n + 1);
+        this.weights = weights.clone();
+
+        int hCount = (m + 1) * n;
+        this.boxEdges = new int[4 * m * n];
+        this.edgeBoxA = new int[edgeCount];
+        this.edgeBoxB = new int[edgeCount];
+        Arrays.fill(edgeBoxA, -1);
+        Arrays.fill(edgeBoxB, -1);
+        for (int r = 0; r < m; r++) {
+            for (int c = 0; c < n; c++) {
+                int b = r * n + c;
+                int left = hCount + r * (n + 1) + c;
+                boxEdges[4 * b] = r * n + c;
+                boxEdges[4 * b + 1] = (r + 1) * n + c;
+                boxEdges[4 * b + 2] = left;
+                boxEdges[4 * b + 3] = left + 1;
+                for (int k = 0; k < 4; k++) {
+                    int e = boxEdges[4 * b + k];
+                    if (edgeBoxA[e] < 0) edgeBoxA[e] = b; else edgeBoxB[e] = b;
+                }
+            }
+        }
+        this.words = new long[(edgeCount + 63) >>> 6];
+        this.sides = new int[m * n];
+        this.mark = new int[m * n];
+        this.stack = new int[m * n];
+        this.chainOf = new int[m * n];
+        this.candidates = new int[edgeCount];
+    }
+
+    public static String featureName(int feature) {
+        return NAMES[feature];
+    }
+
+    public static double[] defaultWeights() {
+        return DEFAULT_WEIGHTS.clone();
+    }
+
+    public double[] getWeights() {
+        return weights.clone();
+    }
+
+    /**
+     * Log-odds that the side to move wins.
+     * firstPlayerToMove says whether the side to move is the player who opened the game,
+     * which the long chain rule depends on.
+     */
+    public double evaluate(BoardSnapshot pos, int moverScore, int opponentScore, boolean firstPlayerToMove) {
+        analyse(pos);
+        double v = 0;
+        for (int f = 0; f < FEATURES; f++) {
+            v += weights[f] * feature(f, moverScore, opponentScore, firstPlayerToMove);
+        }
+        return v;
+    }
+
+    /** Write the FEATURES feature values of a position to dst[offset..offset + FEATURES). */
+    public void extract(BoardSnapshot pos, int moverScore, int opponentScore, boolean firstPlayerToMove,
+                        float[] dst, int offset) {
+        analyse(pos);
+        for (int f = 0; f < FEATURES; f++) {
+            dst[offset + f] = feature(f, moverScore, opponentScore, firstPlayerToMove);
+        }
+    }
+
+    /**
+     * Same as the snapshot overload, for one lane of a batch; scores and side to move come
+     * from the batch.
+     */
+    public void extract(BoardBatch batch, int lane, float[] dst, int offset) {
+        analyse(batch, lane);
+        boolean player2 = batch.isPlayer2ToMove(lane);
+        int score1 = batch.getScore1(lane);
+        int score2 = batch.getScore2(lane);
+        for (int f = 0; f < FEATURES; f++) {
+            dst[offset + f] = player2 ? feature(f, score2, score1, false) : feature(f, score1, score2, true);
+        }
+    }
+
+    private int feature(int f, int moverScore, int opponentScore, boolean firstPlayerToMove) {
+        int parity = (safeMoves & 1) != 0 ? 1 : -1;
+        switch (f) {
+            case SCORE_DIFF:
+                return moverScore - opponentScore;
+            case CAPTURABLE:
+                return capturable;
+            case SAFE_PARITY:
+                return parity;
+            case LONG_CHAINS:
+                return longChains;
+            case SHORT_CHAINS:
+                return shortChains;
+            case LONG_CHAIN_RULE:
+                if (longChains == 0) return 0;
+                // The first player wants dots + long chains even, the second wants it odd
+                boolean even = ((dots + longChains) & 1) == 0;
+                return even == firstPlayerToMove ? 1 : -1;
+            case CONTROL:
+                return parity * longChainBoxes;
+            default:
+                throw new IllegalArgumentException("No feature " + f);
+        }
+    }
+
+    /** Count drawn sides, safe moves and chains; the results stay valid until the next call. */
+    void analyse(BoardSnapshot pos) {
+        checkSize(pos.rows(), pos.cols());
+        for (int i = 0; i < words.length; i++) {
+            words[i] = pos.edgeWord(i);
+        }
+        analyse();
+    }
+
+    void analyse(BoardBatch batch, int lane) {
+        checkSize(batch.rows(), batch.cols());
+        if (lane < 0 || lane >= batch.lanes()) {
+            throw new IndexOutOfBoundsException("Lane " + lane + " of " + batch.lanes());
+        }
+        Arrays.fill(words, 0);
+        for (int e = 0; e < edgeCount; e++) {
+            words[e >>> 6] |= ((batch.edgeLanes(e) >>> lane) & 1L) << e;
+        }
+        analyse();
+    }
+
+    private void checkSize(int rows, int cols) {
+        if (rows != m || cols != n) {
+            throw new IllegalArgumentException("Evaluator is for " + m + "x" + n + " boards");
+        }
+    }
+
+    private void analyse() {
+        int boxes = m * n;
+        capturable = 0;
+        for (int b = 0; b < boxes; b++) {
+            int s = 0;
+            for (int k = 4 * b; k < 4 * b + 4; k++) {
+                if (claimed(boxEdges[k])) s++;
+            }
+            sides[b] = s;
+            if (s == 3) capturable++;
+        }
+
+        safeMoves = 0;
+        for (int e = 0; e < edgeCount; e++) {
+            if (!claimed(e) && moveClass(e) == SAFE) safeMoves++;
+        }
+
+        // Chains: boxes with exactly two sides drawn, linked through their free sides
+        if (++stamp == 0) {
+            Arrays.fill(mark, 0);
+            stamp = 1;
+        }
+        longChains = 0;
+        shortChains = 0;
+        longChainBoxes = 0;
+        for (int b = 0; b < boxes; b++) {
+            if (sides[b] != 2 || mark[b] == stamp) continue;
+            // stack[0..length) collects the chain's boxes; head walks through them
+            int length = 0;
+            int head = 0;
+            stack[length++] = b;
+            mark[b] = stamp;
+            while (head < length) {
+                int box = stack[head++];
+                for (int k = 4 * box; k < 4 * box + 4; k++) {
+                    int e = boxEdges[k];
+                    if (claimed(e)) continue;
+                    int other = edgeBoxA[e] == box ? edgeBoxB[e] : edgeBoxA[e];
+                    if (other >= 0 && sides[other] == 2 && mark[other] != stamp) {
+                        mark[other] = stamp;
+                        stack[length++] = other;
+                    }
+                }
+            }
+            for (int i = 0; i < length; i++) {
+                chainOf[stack[i]] = length;
+            }
+            if (length >= 3) {
+                longChains++;
+                longChainBoxes += length;
+            } else {
+                shortChains++;
+            }
+        }
+    }
+
+    /**
+     * Self-play move for the position from the last analyse call, with random picking among
+     * equally good edges. Captures come first, except that once no safe move is left the
+     * player taking a chain declines its last two boxes (the all-but-two trick) while the long
+     * chains still to come are worth more than the boxes handed back, so it keeps control.
+     * Then any safe move; then the sacrifice that gives away the fewest boxes, cutting a
+     * two-box chain in the middle so it cannot be declined. Loops are treated as chains.
+     */
+    int selfPlayMove(long random) {
+        int k = 0;
+        if (capturable > 0) {
+            // Keep control if the long chains pay for handing back two boxes at the end of each
+            // but the last: longChainBoxes - 2 (longChains - 1) > 2 + 2 (longChains - 1)
+            boolean keepControl = safeMoves == 0 && longChains > 0 && longChainBoxes > 4 * longChains - 2;
+            int decline = -1;
+            for (int e = 0; e < edgeCount; e++) {
+                if (claimed(e) || moveClass(e) != CAPTURE) continue;
+                int handOver = keepControl ? lastTwo(e) : -1;
+                if (handOver >= 0) {
+                    decline = handOver;
+                } else {
+                    candidates[k++] = e;
+                }
+            }
+            // Take every other box first; decline only when the last two are all that is left
+            if (k > 0) return candidates[(int) ((random >>> 1) % k)];
+            if (decline >= 0) return decline;
+        }
+        int best = Integer.MAX_VALUE;
+        for (int e = 0; e < edgeCount; e++) {
+            if (claimed(e)) continue;
+            int cost = moveClass(e) == SAFE ? 0 : sacrificeCost(e);
+            if (cost < best) {
+                best = cost;
+                k = 0;
+            }
+            if (cost == best) candidates[k++] = e;
+        }
+        return candidates[(int) ((random >>> 1) % k)];
+    }
+
+    /**
+     * If capture edge e takes a box whose neighbour across e is the last box of its chain,
+     * the far edge of that neighbour: drawing it hands both boxes to the opponent, who can
+     * take them with e and must then move. Otherwise -1.
+     */
+    private int lastTwo(int e) {
+        int a = edgeBoxA[e];
+        int b = edgeBoxB[e];
+        if (a < 0 || b < 0) return -1;
+        int next = sides[a] == 3 ? b : a;
+        if (sides[next] != 2 || chainOf[next] != 1) return -1;
+        for (int k = 4 * next; k < 4 * next + 4; k++) {
+            int far = boxEdges[k];
+            if (far == e || claimed(far)) continue;
+            int beyond = edgeBoxA[far] == next ? edgeBoxB[far] : edgeBoxA[far];
+            return beyond < 0 || sides[beyond] <= 1 ? far : -1;
+        }
+        return -1;
+    }
+
+    // Boxes the opponent can take after edge e is drawn, doubled, minus one for the
+    // middle of a two-box chain (which leaves two single boxes that cannot be declined)
+    private int sacrificeCost(int e) {
+        int a = edgeBoxA[e];
+        int b = edgeBoxB[e];
+        boolean chainA = a >= 0 && sides[a] == 2;
+        boolean chainB = b >= 0 && sides[b] == 2;
+        if (chainA && chainB) {
+            // e is free, so a and b are linked through it: one chain
+            return 2 * chainOf[a] - (chainOf[a] == 2 ? 1 : 0);
+        }
+        return 2 * ((chainA ? chainOf[a] : 0) + (chainB ? chainOf[b] : 0));
+    }
+
+    /**
+     * CAPTURE if a free edge completes a box, SAFE if it leaves no box with three sides,
+     * otherwise SACRIFICE. Uses the side counts from the last analyse call.
+     */
+    int moveClass(int edge) {
+        int a = edgeBoxA[edge];
+        int b = edgeBoxB[edge];
+        int worst = Math.max(a >= 0 ? sides[a] : 0, b >= 0 ? sides[b] : 0);
+        if (worst == 3) return CAPTURE;
+        return worst <= 1 ? SAFE : SACRIFICE;
+    }
+
+    private boolean claimed(int edge) {
+        return (words[edge >>> 6] & (1L << edge)) != 0;
+    }
+}
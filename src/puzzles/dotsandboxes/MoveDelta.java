@@ -0,0 +1,66 @@
+package puzzles.dotsandboxes;
+
+/**
+ * Immutable description of one applied move, broadcast to spectators.
+ * Carries just enough to update a spectator's view without re-rendering the board.
+ */
+public final class MoveDelta {
+    private final long sequence;
+    private final int edge;
+    private final int box0;
+    private final int box1;
+    private final int score1;
+    private final int score2;
+    private final int nextPlayer;
+
+    MoveDelta(long sequence, int edge, int box0, int box1, int score1, int score2, int nextPlayer) {
+        this.sequence = sequence;
+        this.edge = edge;
+        this.box0 = box0;
+        this.box1 = box1;
+        this.score1 = score1;
+        this.score2 = score2;
+        this.nextPlayer = nextPlayer;
+    }
+
+    /** Zero-based move number within the game. */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /** Flat edge index, see {@link DotsAndBoxesBoard#edgeIndex(char, int, int)}. */
+    public int getEdge() {
+        return edge;
+    }
+
+    public int getBoxesCompleted() {
+        return (box0 >= 0 ? 1 : 0) + (box1 >= 0 ? 1 : 0);
+    }
+
+    /** Box id (r * cols + c) completed by this move, or -1. i is 0 or 1. */
+    public int getCompletedBox(int i) {
+        if (i < 0 || i > 1) {
+            throw new IllegalArgumentException("Box slot must be 0 or 1");
+        }
+        return i == 0 ? box0 : box1;
+    }
+
+    public int getScore1() {
+        return score1;
+    }
+
+    public int getScore2() {
+        return score2;
+    }
+
+    /** Index of the player to move next: 0 for player 1, 1 for player 2. */
+    public int getNextPlayer() {
+        return nextPlayer;
+    }
+
+    @Override
+    public String toString() {
+        return "Move" + sequence + "(edge " + edge + ", boxes " + getBoxesCompleted() +
+               ", score " + score1 + "-" + score2 + ", next P" + (nextPlayer + 1) + ")";
+    }
+}
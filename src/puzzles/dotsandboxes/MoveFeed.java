@@ -0,0 +1,122 @@
+package puzzles.dotsandboxes;
+
+/**
+ * Single-writer ring buffer of move deltas for one game.
+ * The game thread publishes; any number of spectator readers consume without locks.
+ * A reader that falls more than one ring behind is dropped until it resyncs from a snapshot.
+ */
+public final class MoveFeed {
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final DotsAndBoxesBoard board;
+    private final MoveDelta[] ring;
+    private final int mask;
+    private volatile long published; // sequence of the next delta to be written
+
+    MoveFeed(DotsAndBoxesBoard board, int capacity) {
+        if (board == null) {
+            throw new IllegalArgumentException("Board cannot be null");
+        }
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a positive power of two");
+        }
+        this.board = board;
+        this.ring = new MoveDelta[capacity];
+        this.mask = capacity - 1;
+        this.published = 0;
+    }
+
+    public int capacity() {
+        return ring.length;
+    }
+
+    /** Number of deltas published so far. */
+    public long published() {
+        return published;
+    }
+
+    // Writer side: only the game thread calls this.
+    // The slot store happens-before the volatile write, so readers that see the new
+    // count also see the delta; deltas are immutable so a racy slot read is still safe.
+    void publish(MoveDelta delta) {
+        long seq = published;
+        ring[(int) (seq & mask)] = delta;
+        published = seq + 1;
+    }
+
+    /** Current position of the game this feed belongs to. Safe from any thread. */
+    public BoardSnapshot snapshot() {
+        return board.snapshot();
+    }
+
+    /** Attach a reader that will see every delta published from now on. */
+    public Reader newReader() {
+        return new Reader(published);
+    }
+
+    /**
+     * A spectator's cursor into the feed. Not thread-safe: one reader per consumer thread.
+     */
+    public final class Reader {
+        private long next;
+        private boolean dropped;
+
+        private Reader(long start) {
+            this.next = start;
+            this.dropped = false;
+        }
+
+        /**
+         * Return the next delta, or null if none is available yet or the reader was dropped.
+         */
+        public MoveDelta poll() {
+            if (dropped) {
+                return null;
+            }
+            long head = published;
+            if (next >= head) {
+                return null;
+            }
+            if (head - next > ring.length) {
+                dropped = true;
+                return null;
+            }
+            MoveDelta delta = ring[(int) (next & mask)];
+            // The writer may have lapped us between reading head and reading the slot
+            if (delta == null || delta.getSequence() != next) {
+                dropped = true;
+                return null;
+            }
+            next++;
+            return delta;
+        }
+
+        /** Sequence of the next delta this reader expects. */
+        public long position() {
+            return next;
+        }
+
+        /** Number of deltas published but not yet consumed. */
+        public long lag() {
+            return published - next;
+        }
+
+        /** True once this reader fell too far behind; it returns no deltas until {@link #resync()}. */
+        public boolean isDropped() {
+            return dropped;
+        }
+
+        /**
+         * Catch up by taking a full snapshot; polling resumes with the first delta after it.
+         * The snapshot carries the owners, scores and player to move, so it restores
+         * everything the skipped deltas would have.
+         * If the writer laps the reader again before it polls, it is simply dropped again.
+         */
+        public BoardSnapshot resync() {
+            BoardSnapshot s = board.snapshot();
+            next = s.getMoveCount();
+            dropped = false;
+            return s;
+        }
+    }
+}
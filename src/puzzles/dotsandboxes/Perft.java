@@ -0,0 +1,183 @@
+package puzzles.dotsandboxes;
+
+import puzzles.metrics.Metrics;
+import puzzles.metrics.SearchEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Perft-style move-tree counter, as used by chess engines to validate move generation.
+ * Counts the positions reached after exactly depth edge claims, walking the real
+ * {@link BoardSnapshot} representation. The extra-turn rule of
+ * {@link DotsAndBoxesGame#applyMove(char, int, int)} decides who is to move at each node.
+ * Games that end before depth contribute no leaves.
+ */
+public final class Perft {
+    private Perft() {
+    }
+
+    /** Leaf counts for one subtree. */
+    public static final class Result {
+        private final int edge;
+        private long nodes;
+        private long captures;
+        private long doubleCaptures;
+        private long player2ToMove;
+
+        private Result(int edge) {
+            this.edge = edge;
+        }
+
+        /** Root move this subtree starts with, or -1 for a whole tree. */
+        public int getEdge() {
+            return edge;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        /** Leaves whose last move completed at least one box (and so kept the turn). */
+        public long getCaptures() {
+            return captures;
+        }
+
+        /** Leaves whose last move completed two boxes at once. */
+        public long getDoubleCaptures() {
+            return doubleCaptures;
+        }
+
+        /** Leaves where player 2 is to move. */
+        public long getPlayer2ToMove() {
+            return player2ToMove;
+        }
+
+        private void add(Result other) {
+            nodes += other.nodes;
+            captures += other.captures;
+            doubleCaptures += other.doubleCaptures;
+            player2ToMove += other.player2ToMove;
+        }
+    }
+
+    /**
+     * Count leaves depth claims below position.
+     * With bulk set, the last ply is counted from the number of free edges instead of being
+     * played, which is much faster but leaves the capture and side-to-move counts at zero.
+     */
+    public static Result count(BoardSnapshot position, boolean player2ToMove, int depth, boolean bulk) {
+        checkDepth(depth);
+        SearchEvent event = Metrics.jfr() ? new SearchEvent() : null;
+        if (event != null) event.begin();
+        long start = Metrics.start();
+        Result result = new Result(-1);
+        if (depth == 0) {
+            result.nodes = 1;
+            if (player2ToMove) result.player2ToMove = 1;
+        } else {
+            search(position, player2ToMove, depth, bulk, result);
+        }
+        Metrics.searched(start, result.nodes);
+        if (event != null) event.finish("perft", depth, result.nodes, Metrics.NO_TT);
+        return result;
+    }
+
+    /**
+     * Per-root-move breakdown, in edge order, with the subtrees counted on a pool of threads.
+     * The sum of the results equals {@link #count}.
+     */
+    public static List<Result> divide(final BoardSnapshot position, final boolean player2ToMove,
+                                      final int depth, final boolean bulk, int threads) {
+        checkDepth(depth);
+        if (depth == 0) {
+            throw new IllegalArgumentException("Divide needs depth of at least 1");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread");
+        }
+        SearchEvent event = Metrics.jfr() ? new SearchEvent() : null;
+        if (event != null) event.begin();
+        long start = Metrics.start();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Result>> pending = new ArrayList<>();
+            for (int e = 0; e < position.edgeCount(); e++) {
+                if (position.isEdgeClaimed(e)) continue;
+                final int edge = e;
+                pending.add(pool.submit(() -> {
+                    Result result = new Result(edge);
+                    visit(position, edge, player2ToMove, depth, bulk, result);
+                    return result;
+                }));
+            }
+            List<Result> results = new ArrayList<>();
+            for (Future<Result> f : pending) {
+                results.add(f.get());
+            }
+            long nodes = total(results).nodes;
+            Metrics.searched(start, nodes);
+            if (event != null) event.finish("perft-divide", depth, nodes, Metrics.NO_TT);
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during perft", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Perft worker failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Sum of a divide() breakdown. */
+    public static Result total(List<Result> results) {
+        Result sum = new Result(-1);
+        for (Result r : results) {
+            sum.add(r);
+        }
+        return sum;
+    }
+
+    private static void search(BoardSnapshot pos, boolean p2, int depth, boolean bulk, Result out) {
+        if (bulk && depth == 1) {
+            out.nodes += pos.getFreeEdges();
+            return;
+        }
+        int words = (pos.edgeCount() + 63) >>> 6;
+        for (int w = 0; w < words; w++) {
+            long freeBits = ~pos.edgeWord(w);
+            if (w == words - 1 && (pos.edgeCount() & 63) != 0) {
+                freeBits &= (1L << pos.edgeCount()) - 1;
+            }
+            for (; freeBits != 0; freeBits &= freeBits - 1) {
+                visit(pos, (w << 6) + Long.numberOfTrailingZeros(freeBits), p2, depth, bulk, out);
+            }
+        }
+    }
+
+    // Claim edge from pos, then count the depth - 1 plies below it
+    private static void visit(BoardSnapshot pos, int edge, boolean p2, int depth, boolean bulk, Result out) {
+        BoardSnapshot next = pos.withEdge(edge, p2 ? 2 : 1);
+        int made = next.getBoxesClaimed() - pos.getBoxesClaimed();
+        // Completing a box keeps the turn; otherwise it passes
+        boolean nextP2 = made > 0 ? p2 : !p2;
+        if (depth == 1) {
+            out.nodes++;
+            if (made > 0) out.captures++;
+            if (made == 2) out.doubleCaptures++;
+            if (nextP2) out.player2ToMove++;
+        } else {
+            search(next, nextP2, depth - 1, bulk, out);
+        }
+    }
+
+    private static void checkDepth(int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Depth cannot be negative");
+        }
+    }
+}
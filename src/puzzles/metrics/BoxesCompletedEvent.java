@@ -0,0 +1,33 @@
+package puzzles.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** JFR event for an edge claim that closed one or two boxes. */
+@Name("puzzles.BoxesCompleted")
+@Label("Boxes Completed")
+@Category("Puzzles")
+@Description("Boxes closed by a single dots and boxes edge claim")
+public final class BoxesCompletedEvent extends jdk.jfr.Event {
+    @Label("Boxes")
+    int boxes;
+
+    @Label("First Box")
+    int firstBox;
+
+    @Label("Second Box")
+    int secondBox;
+
+    /** Box ids as in MoveDelta; secondBox is -1 if only one box closed. */
+    public static void emit(int boxes, int firstBox, int secondBox) {
+        BoxesCompletedEvent event = new BoxesCompletedEvent();
+        if (event.shouldCommit()) {
+            event.boxes = boxes;
+            event.firstBox = firstBox;
+            event.secondBox = secondBox;
+            event.commit();
+        }
+    }
+}
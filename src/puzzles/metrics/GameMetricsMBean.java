@@ -0,0 +1,24 @@
+package puzzles.metrics;
+
+/**
+ * JMX view of {@link Metrics}, registered as "puzzles:type=GameMetrics" when metrics are on.
+ * Latencies are in nanoseconds.
+ */
+public interface GameMetricsMBean {
+    long getMovesApplied();
+    long getInvalidMoves();
+    long getBoxesCompleted();
+    long getRenders();
+    long getSearches();
+    long getSearchNodes();
+
+    long getMoveLatencyP50();
+    long getMoveLatencyP99();
+    long getMoveLatencyMax();
+    long getRenderLatencyP99();
+    long getSearchLatencyP99();
+
+    String getStatsLine();
+
+    void reset();
+}
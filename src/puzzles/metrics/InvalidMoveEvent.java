@@ -0,0 +1,37 @@
+package puzzles.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** JFR event for a rejected move. Instant; callers emit it only when {@link Metrics#jfr()}. */
+@Name("puzzles.InvalidMove")
+@Label("Invalid Move")
+@Category("Puzzles")
+@Description("A move rejected as illegal or out of range")
+public final class InvalidMoveEvent extends jdk.jfr.Event {
+    @Label("Game")
+    String game;
+
+    @Label("Move")
+    String move;
+
+    public static void emit(String game, char type, int r, int c) {
+        InvalidMoveEvent event = new InvalidMoveEvent();
+        if (event.shouldCommit()) {
+            event.game = game;
+            event.move = type + " " + r + " " + c;
+            event.commit();
+        }
+    }
+
+    public static void emit(String game, int tile) {
+        InvalidMoveEvent event = new InvalidMoveEvent();
+        if (event.shouldCommit()) {
+            event.game = game;
+            event.move = Integer.toString(tile);
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package puzzles.metrics;
+
+import jdk.jfr.FlightRecorder;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * Opt-in counters and latency histograms for the game stack.
+ * Off unless the JVM runs with -Dpuzzles.metrics=true; ENABLED is a static final, so when
+ * it is false the JIT drops every recording call. When on, the counters are exposed as the
+ * JMX bean "puzzles:type=GameMetrics", and -Dpuzzles.metrics.interval=N also prints a stats
+ * line to stderr every N seconds.
+ * JFR events (MoveAppliedEvent, SearchEvent, ...) are independent of this switch: they are
+ * controlled by the flight recording settings instead, and are only built once the flight
+ * recorder is running (see {@link #jfr()}).
+ */
+public final class Metrics {
+    public static final boolean ENABLED = Boolean.getBoolean("puzzles.metrics");
+
+    /** TT hit rate reported by engines that have no transposition table. */
+    public static final double NO_TT = Double.NaN;
+
+    private static final LongAdder MOVES = new LongAdder();
+    private static final LongAdder INVALID = new LongAdder();
+    private static final LongAdder BOXES = new LongAdder();
+    private static final LongAdder RENDERS = new LongAdder();
+    private static final LongAdder SEARCHES = new LongAdder();
+    private static final LongAdder SEARCH_NODES = new LongAdder();
+    private static final LatencyHistogram MOVE_LATENCY = new LatencyHistogram();
+    private static final LatencyHistogram RENDER_LATENCY = new LatencyHistogram();
+    private static final LatencyHistogram SEARCH_LATENCY = new LatencyHistogram();
+
+    static {
+        if (ENABLED) {
+            register();
+            startReporter(Long.getLong("puzzles.metrics.interval", 0L));
+        }
+    }
+
+    private Metrics() {
+    }
+
+    /** Start timestamp for a timed section; 0 when metrics are off. */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * True once the flight recorder is up, from -XX:StartFlightRecording or a later jcmd JFR.start.
+     * Guard every JFR event behind this: loading the first event class otherwise starts JFR
+     * itself, which takes 200-300 ms even when nothing is recorded.
+     */
+    public static boolean jfr() {
+        return FlightRecorder.isInitialized();
+    }
+
+    public static void moveApplied(long start) {
+        if (ENABLED) {
+            MOVES.increment();
+            MOVE_LATENCY.record(System.nanoTime() - start);
+        }
+    }
+
+    public static void invalidMove() {
+        if (ENABLED) {
+            INVALID.increment();
+        }
+    }
+
+    public static void boxesCompleted(int boxes) {
+        if (ENABLED) {
+            BOXES.add(boxes);
+        }
+    }
+
+    public static void rendered(long start) {
+        if (ENABLED) {
+            RENDERS.increment();
+            RENDER_LATENCY.record(System.nanoTime() - start);
+        }
+    }
+
+    public static void searched(long start, long nodes) {
+        if (ENABLED) {
+            SEARCHES.increment();
+            SEARCH_NODES.add(nodes);
+            SEARCH_LATENCY.record(System.nanoTime() - start);
+        }
+    }
+
+    public static LatencyHistogram moveLatency() {
+        return MOVE_LATENCY;
+    }
+
+    public static LatencyHistogram renderLatency() {
+        return RENDER_LATENCY;
+    }
+
+    public static LatencyHistogram searchLatency() {
+        return SEARCH_LATENCY;
+    }
+
+    /** One-line summary; latencies in microseconds. */
+    public static String statsLine() {
+        return String.format("moves=%d invalid=%d boxes=%d renders=%d searches=%d nodes=%d "
+                + "move p50=%.1fus p99=%.1fus max=%.1fus render p99=%.1fus search p99=%.1fus",
+                MOVES.sum(), INVALID.sum(), BOXES.sum(), RENDERS.sum(), SEARCHES.sum(), SEARCH_NODES.sum(),
+                MOVE_LATENCY.getPercentile(50) / 1e3, MOVE_LATENCY.getPercentile(99) / 1e3,
+                MOVE_LATENCY.getMax() / 1e3, RENDER_LATENCY.getPercentile(99) / 1e3,
+                SEARCH_LATENCY.getPercentile(99) / 1e3);
+    }
+
+    public static void reset() {
+        MOVES.reset();
+        INVALID.reset();
+        BOXES.reset();
+        RENDERS.reset();
+        SEARCHES.reset();
+        SEARCH_NODES.reset();
+        MOVE_LATENCY.reset();
+        RENDER_LATENCY.reset();
+        SEARCH_LATENCY.reset();
+    }
+
+    private static void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(
+                    new StandardMBean(new Bean(), GameMetricsMBean.class),
+                    new ObjectName("puzzles:type=GameMetrics"));
+        } catch (JMException e) {
+            // Already registered (e.g. two class loaders) or no MBean server: counters still work
+            System.err.println("puzzles metrics: JMX registration failed: " + e);
+        }
+    }
+
+    private static void startReporter(final long seconds) {
+        if (seconds <= 0) {
+            return;
+        }
+        Thread reporter = new Thread(() -> {
+            try {
+                while (true) {
+                    Thread.sleep(seconds * 1000);
+                    System.err.println("[metrics] " + statsLine());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "puzzles-metrics");
+        reporter.setDaemon(true);
+        reporter.start();
+    }
+
+    private static final class Bean implements GameMetricsMBean {
+        @Override
+        public long getMovesApplied() {
+            return MOVES.sum();
+        }
+
+        @Override
+        public long getInvalidMoves() {
+            return INVALID.sum();
+        }
+
+        @Override
+        public long getBoxesCompleted() {
+            return BOXES.sum();
+        }
+
+        @Override
+        public long getRenders() {
+            return RENDERS.sum();
+        }
+
+        @Override
+        public long getSearches() {
+            return SEARCHES.sum();
+        }
+
+        @Override
+        public long getSearchNodes() {
+            return SEARCH_NODES.sum();
+        }
+
+        @Override
+        public long getMoveLatencyP50() {
+            return MOVE_LATENCY.getPercentile(50);
+        }
+
+        @Override
+        public long getMoveLatencyP99() {
+            return MOVE_LATENCY.getPercentile(99);
+        }
+
+        @Override
+        public long getMoveLatencyMax() {
+            return MOVE_LATENCY.getMax();
+        }
+
+        @Override
+        public long getRenderLatencyP99() {
+            return RENDER_LATENCY.getPercentile(99);
+        }
+
+        @Override
+        public long getSearchLatencyP99() {
+            return SEARCH_LATENCY.getPercentile(99);
+        }
+
+        @Override
+        public String getStatsLine() {
+            return statsLine();
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package puzzles.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event spanning one successful move, from input validation to the new position.
+ * Only built while the flight recorder is running; see {@link Metrics#jfr()}.
+ */
+@Name("puzzles.MoveApplied")
+@Label("Move Applied")
+@Category("Puzzles")
+@Description("A legal move applied to a game")
+public final class MoveAppliedEvent extends jdk.jfr.Event {
+    @Label("Game")
+    String game;
+
+    @Label("Move")
+    String move;
+
+    @Label("Boxes Completed")
+    int boxesCompleted;
+
+    /** Dots and boxes edge claim. */
+    public void finish(String game, char type, int r, int c, int boxesCompleted) {
+        end();
+        if (shouldCommit()) {
+            this.game = game;
+            this.move = Character.toUpperCase(type) + " " + r + " " + c;
+            this.boxesCompleted = boxesCompleted;
+            commit();
+        }
+    }
+
+    /** Sliding puzzle tile slide. */
+    public void finish(String game, int tile) {
+        end();
+        if (shouldCommit()) {
+            this.game = game;
+            this.move = Integer.toString(tile);
+            commit();
+        }
+    }
+}
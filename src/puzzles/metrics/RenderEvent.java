@@ -0,0 +1,28 @@
+package puzzles.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** JFR event spanning one board render. */
+@Name("puzzles.Render")
+@Label("Render")
+@Category("Puzzles")
+@Description("Rendering a board to text")
+public final class RenderEvent extends jdk.jfr.Event {
+    @Label("Game")
+    String game;
+
+    @Label("Characters")
+    int characters;
+
+    public void finish(String game, int characters) {
+        end();
+        if (shouldCommit()) {
+            this.game = game;
+            this.characters = characters;
+            commit();
+        }
+    }
+}
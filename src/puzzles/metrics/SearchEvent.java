@@ -0,0 +1,37 @@
+package puzzles.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** JFR event spanning one engine search (solver, perft, ...). */
+@Name("puzzles.Search")
+@Label("Engine Search")
+@Category("Puzzles")
+@Description("One call into a search engine")
+public final class SearchEvent extends jdk.jfr.Event {
+    @Label("Engine")
+    String engine;
+
+    @Label("Depth")
+    int depth;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("TT Hit Rate")
+    @Description("Transposition table hits per probe; NaN for engines without a table")
+    double ttHitRate;
+
+    public void finish(String engine, int depth, long nodes, double ttHitRate) {
+        end();
+        if (shouldCommit()) {
+            this.engine = engine;
+            this.depth = depth;
+            this.nodes = nodes;
+            this.ttHitRate = ttHitRate;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package puzzles.slidingpuzzle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Exact optimal distance of every state of one sliding puzzle size, as written by
+ * {@link StateSpaceEnumerator}. Entries are 7-bit fields indexed by {@link PermutationIndex},
+ * one per solvable state; the file is memory-mapped, so lookups are instant and cost no heap.
+ * {@link SlidingPuzzleGame} takes its hints from the table for its size when one is found
+ * (see {@link #forSize}), and App --validate checks the solver against it.
+ *
+ * File layout: 16-byte header (magic, rows, cols, bits per entry), then the packed
+ * entries, then padding so a 2-byte read at the last entry stays in bounds.
+ */
+public final class DistanceTable {
+    /** System property naming the directory searched for dist-RxC.bin tables; default is the working directory. */
+    public static final String DIR_PROPERTY = "puzzles.tables.dir";
+
+    static final int MAGIC = 0x53504454; // "SPDT"
+    static final int HEADER_BYTES = 16;
+    static final int BITS = 7;
+    static final int UNREACHABLE = (1 << BITS) - 1;
+    private static final int MASK = UNREACHABLE;
+
+    private static final Map<String, DistanceTable> TABLES = new HashMap<>();
+
+    private final int rows;
+    private final int cols;
+    private final ByteBuffer data;
+
+    private DistanceTable(int rows, int cols, ByteBuffer data) {
+        this.rows = rows;
+        this.cols = cols;
+        this.data = data;
+    }
+
+    /** Where the table for a size is looked up: dist-RxC.bin in the table directory. */
+    public static File fileFor(int rows, int cols) {
+        String dir = System.getProperty(DIR_PROPERTY, ".");
+        return new File(dir, "dist-" + rows + "x" + cols + ".bin");
+    }
+
+    /** Shared table for a board size, or null if none has been enumerated into {@link #fileFor}. */
+    public static synchronized DistanceTable forSize(int rows, int cols) throws IOException {
+        String key = rows + "x" + cols;
+        DistanceTable table = TABLES.get(key);
+        if (table == null) {
+            File file = fileFor(rows, cols);
+            if (!file.isFile()) {
+                return null;
+            }
+            table = open(file);
+            if (table.rows != rows || table.cols != cols) {
+                throw new IOException(file + " holds a " + table.rows + "x" + table.cols + " table");
+            }
+            TABLES.put(key, table);
+        }
+        return table;
+    }
+
+    public static DistanceTable open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException(file + " is not a distance table");
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            map.order(ByteOrder.LITTLE_ENDIAN);
+            int rows = map.get(4);
+            int cols = map.get(5);
+            if (map.getInt(0) != MAGIC || map.get(6) != BITS
+                    || rows * cols > PermutationIndex.MAX_N || rows < 1 || cols < 1
+                    || channel.size() != fileSize(rows * cols)) {
+                throw new IOException(file + " is not a distance table");
+            }
+            return new DistanceTable(rows, cols, map);
+        }
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    /** Number of entries: the solvable states of this size. */
+    public long states() {
+        return PermutationIndex.states(rows * cols);
+    }
+
+    /** A solvable board drawn uniformly from every state in the table. */
+    public SlidingPuzzleBoard randomBoard(Random random) {
+        // 12!/2 is below Integer.MAX_VALUE
+        int index = random.nextInt((int) states());
+        int[] perm = new int[rows * cols];
+        PermutationIndex.unrank(index, perm, rows, cols);
+        return new SlidingPuzzleBoard(rows, cols, perm);
+    }
+
+    /** Optimal number of moves to solve the board, or -1 if it is unsolvable. */
+    public int distance(SlidingPuzzleBoard board) {
+        checkSize(board);
+        // Unsolvable layouts share an index with a solvable one, so rule them out first
+        if (!SlidingPuzzleSolver.isSolvable(board)) {
+            return -1;
+        }
+        int size = rows * cols;
+        int[] perm = new int[size];
+        for (int cell = 0; cell < size; cell++) {
+            perm[cell] = board.tileAt(cell);
+        }
+        int d = get(data, PermutationIndex.rank(perm, size));
+        return d == UNREACHABLE ? -1 : d;
+    }
+
+    /** A tile whose slide starts a shortest solution, or -1 if solved or unsolvable. */
+    public int hint(SlidingPuzzleBoard board) {
+        int d = distance(board);
+        if (d <= 0) {
+            return -1;
+        }
+        int size = rows * cols;
+        int[] perm = new int[size];
+        for (int cell = 0; cell < size; cell++) {
+            perm[cell] = board.tileAt(cell);
+        }
+        int blank = board.blankCell();
+        for (int nb : PatternDatabase.neighbours(rows, cols)[blank]) {
+            perm[blank] = perm[nb];
+            perm[nb] = 0;
+            int next = get(data, PermutationIndex.rank(perm, size));
+            perm[nb] = perm[blank];
+            perm[blank] = 0;
+            if (next == d - 1) {
+                return perm[nb];
+            }
+        }
+        throw new IllegalStateException("Distance table is inconsistent");
+    }
+
+    private void checkSize(SlidingPuzzleBoard board) {
+        if (board.rows() != rows || board.cols() != cols) {
+            throw new IllegalArgumentException("Table is for " + rows + "x" + cols + " boards");
+        }
+    }
+
+    static long fileSize(int cells) {
+        long bits = PermutationIndex.states(cells) * BITS;
+        return HEADER_BYTES + ((bits + 7) >>> 3) + 2;
+    }
+
+    static void writeHeader(ByteBuffer buf, int rows, int cols) {
+        buf.putInt(0, MAGIC);
+        buf.put(4, (byte) rows);
+        buf.put(5, (byte) cols);
+        buf.put(6, (byte) BITS);
+    }
+
+    static int get(ByteBuffer buf, long rank) {
+        long bit = rank * BITS;
+        int offset = (int) (HEADER_BYTES + (bit >>> 3));
+        return (buf.getShort(offset) >>> (int) (bit & 7)) & MASK;
+    }
+
+    static void set(ByteBuffer buf, long rank, int value) {
+        long bit = rank * BITS;
+        int offset = (int) (HEADER_BYTES + (bit >>> 3));
+        int shift = (int) (bit & 7);
+        int word = buf.getShort(offset);
+        word = (word & ~(MASK << shift)) | (value << shift);
+        buf.putShort(offset, (short) word);
+    }
+}
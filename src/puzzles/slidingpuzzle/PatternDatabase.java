@@ -0,0 +1,227 @@
+package puzzles.slidingpuzzle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Additive pattern database for one group of tiles on a board of at most 16 cells.
+ * Entry i is the minimum number of moves of the group's own tiles needed to bring them
+ * home from the placement encoded by i (4 bits per tile: the cell of the j-th tile in
+ * bits [4j, 4j+4)). Moves of other tiles are free, so groups that partition the tiles
+ * can be summed and still never overestimate.
+ */
+final class PatternDatabase {
+    static final int MAX_TILES = 6;
+    private static final byte UNSEEN = (byte) 0xFF;
+
+    private final int[] tiles;
+    private final ByteBuffer table;
+
+    private PatternDatabase(int[] tiles, ByteBuffer table) {
+        this.tiles = tiles;
+        this.table = table;
+    }
+
+    int[] tiles() {
+        return tiles.clone();
+    }
+
+    /** Lower bound for a placement index. */
+    int get(int index) {
+        return table.get(index);
+    }
+
+    /**
+     * Map the database file, generating and writing it first if it does not exist yet.
+     * Files are written under a temporary name and renamed, so readers never see a partial one.
+     */
+    static PatternDatabase load(File file, int rows, int cols, int[] tiles) throws IOException {
+        if (!file.isFile()) {
+            byte[] data = generate(rows, cols, tiles);
+            File dir = file.getAbsoluteFile().getParentFile();
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Cannot create directory " + dir);
+            }
+            File tmp = File.createTempFile(file.getName(), ".tmp", dir);
+            try (RandomAccessFile out = new RandomAccessFile(tmp, "rw")) {
+                out.write(data);
+            }
+            if (!tmp.renameTo(file) && !file.isFile()) {
+                tmp.delete();
+                throw new IOException("Cannot write " + file);
+            }
+            tmp.delete();
+        }
+
+        long expected = 1L << (4 * tiles.length);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            if (channel.size() != expected) {
+                throw new IOException("Pattern database " + file + " has the wrong size");
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, expected);
+            return new PatternDatabase(tiles.clone(), map);
+        }
+    }
+
+    /**
+     * Breadth-first search backwards from the goal over (group placement, blank cell) states.
+     * Moving a group tile costs 1; moving the blank through other tiles costs 0, so each
+     * level is first closed under free blank moves before the next level is expanded.
+     * Distances are kept by placement rank rather than by the sparse 4-bit index, so six tiles
+     * on 4x4 need 16!/10! * 16 bytes (about 92 MB) while generating.
+     */
+    static byte[] generate(int rows, int cols, int[] tiles) {
+        int k = tiles.length;
+        int size = rows * cols;
+        if (k < 1 || k > MAX_TILES || size > 16) {
+            throw new IllegalArgumentException("Pattern databases need 1.." + MAX_TILES + " tiles and at most 16 cells");
+        }
+        int shift = 4 * k;
+        int[][] neighbours = neighbours(rows, cols);
+
+        long states = (long) arrangements(size, k) * size;
+        byte[] dist = new byte[(int) states];
+        Arrays.fill(dist, UNSEEN);
+
+        int goal = 0;
+        for (int j = 0; j < k; j++) {
+            goal |= (tiles[j] - 1) << (4 * j);
+        }
+        IntStack current = new IntStack();
+        IntStack next = new IntStack();
+        IntStack stack = new IntStack();
+        int start = goal | ((size - 1) << shift);
+        dist[slot(start, shift, k, size)] = 0;
+        current.push(start);
+
+        for (int d = 0; !current.isEmpty(); d++) {
+            // Seeds of this level that were later reached more cheaply were already expanded
+            while (!current.isEmpty()) {
+                int s = current.pop();
+                if (dist[slot(s, shift, k, size)] == d) stack.push(s);
+            }
+            while (!stack.isEmpty()) {
+                int s = stack.pop();
+                int placement = s & ((1 << shift) - 1);
+                int blank = s >>> shift;
+                for (int nb : neighbours[blank]) {
+                    int j = slotAt(placement, k, nb);
+                    if (j >= 0) {
+                        // Group tile j slides from nb into the blank: costs one move
+                        int moved = (placement & ~(0xF << (4 * j))) | (blank << (4 * j));
+                        int t = moved | (nb << shift);
+                        int i = slot(t, shift, k, size);
+                        if (dist[i] == UNSEEN) {
+                            dist[i] = (byte) (d + 1);
+                            next.push(t);
+                        }
+                    } else {
+                        // Some other tile slides: free
+                        int t = placement | (nb << shift);
+                        int i = slot(t, shift, k, size);
+                        if (dist[i] == UNSEEN || dist[i] == d + 1) {
+                            dist[i] = (byte) d;
+                            stack.push(t);
+                        }
+                    }
+                }
+            }
+            IntStack swap = current;
+            current = next;
+            next = swap;
+        }
+
+        // Project out the blank into the sparse 4-bit table the solver looks up:
+        // the bound for a placement is its best blank cell
+        byte[] table = new byte[1 << shift];
+        for (int p = 0; p < table.length; p++) {
+            int r = rank(p, k, size);
+            if (r < 0) continue; // two tiles on one cell, or off the board: never looked up
+            int best = UNSEEN & 0xFF;
+            for (int b = 0; b < size; b++) {
+                int v = dist[r * size + b] & 0xFF;
+                if (v < best) best = v;
+            }
+            table[p] = (byte) best;
+        }
+        return table;
+    }
+
+    // Dense index of a (placement, blank) state in the generation table
+    private static int slot(int state, int shift, int k, int size) {
+        return rank(state & ((1 << shift) - 1), k, size) * size + (state >>> shift);
+    }
+
+    /**
+     * Rank of a placement among all ordered placements of k distinct tiles on size cells
+     * (0 .. size! / (size - k)! - 1), or -1 if two tiles share a cell or one is off the board.
+     */
+    static int rank(int placement, int k, int size) {
+        int used = 0;
+        int rank = 0;
+        for (int j = 0; j < k; j++) {
+            int cell = (placement >>> (4 * j)) & 0xF;
+            if (cell >= size || (used & (1 << cell)) != 0) return -1;
+            rank = rank * (size - j) + cell - Integer.bitCount(used & ((1 << cell) - 1));
+            used |= 1 << cell;
+        }
+        return rank;
+    }
+
+    private static int arrangements(int size, int k) {
+        int count = 1;
+        for (int j = 0; j < k; j++) {
+            count *= size - j;
+        }
+        return count;
+    }
+
+    // Which group slot holds the tile at this cell, or -1
+    private static int slotAt(int placement, int k, int cell) {
+        for (int j = 0; j < k; j++) {
+            if (((placement >>> (4 * j)) & 0xF) == cell) return j;
+        }
+        return -1;
+    }
+
+    static int[][] neighbours(int rows, int cols) {
+        int[][] result = new int[rows * cols][];
+        for (int cell = 0; cell < rows * cols; cell++) {
+            int r = cell / cols, c = cell % cols;
+            int[] tmp = new int[4];
+            int count = 0;
+            if (r > 0) tmp[count++] = cell - cols;
+            if (r < rows - 1) tmp[count++] = cell + cols;
+            if (c > 0) tmp[count++] = cell - 1;
+            if (c < cols - 1) tmp[count++] = cell + 1;
+            result[cell] = Arrays.copyOf(tmp, count);
+        }
+        return result;
+    }
+
+    // Growable int stack, avoids boxing millions of states
+    private static final class IntStack {
+        private int[] data = new int[1024];
+        private int size = 0;
+
+        void push(int v) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = v;
+        }
+
+        int pop() {
+            return data[--size];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package puzzles.slidingpuzzle;
+
+/**
+ * Perfect hash of solvable board layouts onto [0, n!/2).
+ * perm[cell] is the tile on that cell (0 for the blank). A layout is indexed by the blank's
+ * cell, then by the lexicographic rank of the other tiles in cell order, halved: with the
+ * blank fixed, swapping the last two tiles flips solvability and moves that rank by one, so
+ * each pair of ranks holds exactly one solvable layout. n is at most 12, so every index fits
+ * in an int.
+ */
+final class PermutationIndex {
+    static final int MAX_N = 12;
+    private static final long[] FACTORIAL = new long[MAX_N + 1];
+
+    static {
+        FACTORIAL[0] = 1;
+        for (int i = 1; i <= MAX_N; i++) {
+            FACTORIAL[i] = FACTORIAL[i - 1] * i;
+        }
+    }
+
+    private PermutationIndex() {
+    }
+
+    static long factorial(int n) {
+        return FACTORIAL[n];
+    }
+
+    /** Layouts reachable from the goal: half of all n! (a move never changes solvability). */
+    static long states(int n) {
+        return FACTORIAL[n] / 2;
+    }
+
+    /**
+     * Index of a layout in [0, n!/2). Only solvable layouts get distinct indexes; an
+     * unsolvable one shares the index of the solvable layout with its last two tiles swapped.
+     */
+    static long rank(int[] perm, int n) {
+        int blank = 0;
+        long rank = 0;
+        int used = 0;
+        int j = 0;
+        for (int i = 0; i < n; i++) {
+            int v = perm[i] - 1;
+            if (v < 0) {
+                blank = i;
+                continue;
+            }
+            int smallerUnused = v - Integer.bitCount(used & ((1 << v) - 1));
+            rank += smallerUnused * FACTORIAL[n - 2 - j];
+            used |= 1 << v;
+            j++;
+        }
+        return blank * (FACTORIAL[n - 1] / 2) + (rank >>> 1);
+    }
+
+    /** The solvable layout with this index on a rows x cols board. */
+    static void unrank(long index, int[] perm, int rows, int cols) {
+        int n = rows * cols;
+        long half = FACTORIAL[n - 1] / 2;
+        int blank = (int) (index / half);
+        long rank = (index % half) << 1;
+        int used = 0;
+        int inversions = 0;
+        int last = -1;
+        int beforeLast = -1;
+        for (int i = 0, j = 0; i < n; i++) {
+            if (i == blank) {
+                perm[i] = 0;
+                continue;
+            }
+            long f = FACTORIAL[n - 2 - j];
+            int k = (int) (rank / f);
+            rank -= k * f;
+            // k is this tile's Lehmer digit: the number of smaller tiles after it
+            inversions += k;
+            // Pick the k-th value not used yet
+            int v = 0;
+            while (true) {
+                if ((used & (1 << v)) == 0) {
+                    if (k == 0) break;
+                    k--;
+                }
+                v++;
+            }
+            perm[i] = v + 1;
+            used |= 1 << v;
+            beforeLast = last;
+            last = i;
+            j++;
+        }
+        // Same rule as SlidingPuzzleSolver.isSolvable; the odd one out is the other layout of the pair
+        int blankRowFromBottom = rows - 1 - blank / cols;
+        boolean solvable = cols % 2 == 1 ? inversions % 2 == 0 : (inversions + blankRowFromBottom) % 2 == 0;
+        if (!solvable) {
+            int t = perm[last];
+            perm[last] = perm[beforeLast];
+            perm[beforeLast] = t;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package puzzles.slidingpuzzle;
+
+import puzzles.core.Board;
+import puzzles.metrics.Metrics;
+import puzzles.metrics.RenderEvent;
+
+import java.util.Random;
+
+/**
+ * Board implementation for the sliding puzzle.
+ * Tiles are packed one byte per cell into longs (0 is the blank); the goal is
+ * 1..N-1 in row-major order with the blank in the bottom-right corner.
+ * The number of misplaced tiles is kept up to date on every slide, so isSolved is O(1).
+ */
+public final class SlidingPuzzleBoard implements Board {
+    public static final int MIN_SIZE = 2;
+    public static final int MAX_SIZE = 8;
+
+    private final int rows;
+    private final int cols;
+    private final long[] cells; // cell i => byte (i & 7) of cells[i >>> 3]
+    private int blank;          // cell index of the blank
+    private int misplaced;      // tiles (not counting the blank) off their goal cell
+
+    /** Solved board. */
+    public SlidingPuzzleBoard(int rows, int cols) {
+        if (rows < MIN_SIZE || rows > MAX_SIZE || cols < MIN_SIZE || cols > MAX_SIZE) {
+            throw new IllegalArgumentException("Size must be between 2x2 and 8x8");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        int size = rows * cols;
+        this.cells = new long[(size + 7) >>> 3];
+        for (int i = 0; i < size - 1; i++) {
+            set(i, i + 1);
+        }
+        this.blank = size - 1;
+        this.misplaced = 0;
+    }
+
+    /**
+     * Board from a row-major tile layout (0 for the blank).
+     * The layout must be a permutation of 0..rows*cols-1; solvability is not checked.
+     */
+    public SlidingPuzzleBoard(int rows, int cols, int[] tiles) {
+        this(rows, cols);
+        int size = rows * cols;
+        if (tiles == null || tiles.length != size) {
+            throw new IllegalArgumentException("Expected " + size + " tiles");
+        }
+        boolean[] seen = new boolean[size];
+        misplaced = 0;
+        for (int i = 0; i < size; i++) {
+            int t = tiles[i];
+            if (t < 0 || t >= size || seen[t]) {
+                throw new IllegalArgumentException("Tiles must be a permutation of 0.." + (size - 1));
+            }
+            seen[t] = true;
+            set(i, t);
+            if (t == 0) {
+                blank = i;
+            } else if (t != i + 1) {
+                misplaced++;
+            }
+        }
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    public int size() {
+        return rows * cols;
+    }
+
+    /** Tile at a row-major cell index, 0 for the blank. */
+    public int tileAt(int cell) {
+        if (cell < 0 || cell >= size()) {
+            throw new IndexOutOfBoundsException("Cell " + cell + " is off the board");
+        }
+        return get(cell);
+    }
+
+    @Override
+    public int valueAt(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            throw new IndexOutOfBoundsException("Cell (" + row + "," + col + ") is off the board");
+        }
+        return get(row * cols + col);
+    }
+
+    /** Row-major cell index of the blank. */
+    public int blankCell() {
+        return blank;
+    }
+
+    public int getMisplaced() {
+        return misplaced;
+    }
+
+    @Override
+    public boolean isSolved() {
+        return misplaced == 0;
+    }
+
+    /** Cell of a tile next to the blank, or -1 if the tile is not adjacent to it. */
+    public int neighbourCellOf(int tile) {
+        if (tile <= 0) return -1;
+        int br = blank / cols, bc = blank % cols;
+        if (br > 0 && get(blank - cols) == tile) return blank - cols;
+        if (br < rows - 1 && get(blank + cols) == tile) return blank + cols;
+        if (bc > 0 && get(blank - 1) == tile) return blank - 1;
+        if (bc < cols - 1 && get(blank + 1) == tile) return blank + 1;
+        return -1;
+    }
+
+    /**
+     * Slide a tile into the blank.
+     * Returns false (board unchanged) if the tile is not next to the blank.
+     */
+    public boolean slide(int tile) {
+        int from = neighbourCellOf(tile);
+        if (from < 0) {
+            return false;
+        }
+        moveBlankTo(from);
+        return true;
+    }
+
+    // Swap the blank with an adjacent cell, updating the misplaced count
+    private void moveBlankTo(int cell) {
+        int tile = get(cell);
+        if (tile == cell + 1) misplaced++;
+        if (tile == blank + 1) misplaced--;
+        set(blank, tile);
+        set(cell, 0);
+        blank = cell;
+    }
+
+    /**
+     * Scramble by a random walk of the blank from the current position.
+     * Walking from a solvable position keeps it solvable.
+     */
+    public void shuffle(Random random, int steps) {
+        int previous = -1;
+        int[] options = new int[4];
+        for (int s = 0; s < steps; s++) {
+            int br = blank / cols, bc = blank % cols;
+            int k = 0;
+            if (br > 0) options[k++] = blank - cols;
+            if (br < rows - 1) options[k++] = blank + cols;
+            if (bc > 0) options[k++] = blank - 1;
+            if (bc < cols - 1) options[k++] = blank + 1;
+            int next;
+            do {
+                next = options[random.nextInt(k)];
+            } while (next == previous); // don't immediately undo a step
+            previous = blank;
+            moveBlankTo(next);
+        }
+    }
+
+    /**
+     * Solver encoding: 4 bits per cell in one long, cell i in bits [4i, 4i+4).
+     * Only defined for boards with at most 16 cells; {@link SlidingPuzzleSolver} searches on it.
+     */
+    public long pack() {
+        int size = size();
+        if (size > 16) {
+            throw new IllegalStateException("Only boards with at most 16 cells fit in a long");
+        }
+        long packed = 0;
+        for (int i = 0; i < size; i++) {
+            packed |= (long) get(i) << (i << 2);
+        }
+        return packed;
+    }
+
+    public String render() {
+        RenderEvent event = Metrics.jfr() ? new RenderEvent() : null;
+        if (event != null) event.begin();
+        long start = Metrics.start();
+        int width = Integer.toString(size() - 1).length();
+        StringBuilder divider = new StringBuilder("   +");
+        for (int c = 0; c < cols; c++) {
+            for (int k = 0; k < width + 2; k++) divider.append('-');
+            divider.append('+');
+        }
+        divider.append('\n');
+
+        StringBuilder sb = new StringBuilder((2 * rows + 2) * divider.length() + 32);
+        sb.append("   Sliding Puzzle ").append(rows).append('x').append(cols).append("\n\n");
+        sb.append(divider);
+        for (int r = 0; r < rows; r++) {
+            sb.append("   |");
+            for (int c = 0; c < cols; c++) {
+                int t = get(r * cols + c);
+                String label = t == 0 ? "" : Integer.toString(t);
+                sb.append(' ');
+                for (int k = label.length(); k < width; k++) sb.append(' ');
+                sb.append(label).append(" |");
+            }
+            sb.append('\n').append(divider);
+        }
+        String text = sb.toString();
+        Metrics.rendered(start);
+        if (event != null) event.finish("sliding-puzzle", text.length());
+        return text;
+    }
+
+    private int get(int cell) {
+        return (int) (cells[cell >>> 3] >>> ((cell & 7) << 3)) & 0xFF;
+    }
+
+    private void set(int cell, int tile) {
+        int shift = (cell & 7) << 3;
+        cells[cell >>> 3] = (cells[cell >>> 3] & ~(0xFFL << shift)) | ((long) tile << shift);
+    }
+}
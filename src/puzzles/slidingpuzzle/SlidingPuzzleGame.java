@@ -0,0 +1,124 @@
+package puzzles.slidingpuzzle;
+
+import puzzles.core.Game;
+import puzzles.metrics.InvalidMoveEvent;
+import puzzles.metrics.Metrics;
+import puzzles.metrics.MoveAppliedEvent;
+
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Game implementation for the sliding puzzle.
+ * A move names the tile to slide into the blank.
+ */
+public final class SlidingPuzzleGame implements Game {
+    private static final String GAME = "sliding-puzzle";
+    // Random-walk length per cell when scrambling
+    private static final int SHUFFLE_STEPS_PER_CELL = 50;
+
+    private final Random random;
+    private SlidingPuzzleBoard board;
+    private int moves;
+
+    public SlidingPuzzleGame() {
+        this(new Random());
+    }
+
+    public SlidingPuzzleGame(Random random) {
+        if (random == null) {
+            throw new IllegalArgumentException("Random cannot be null");
+        }
+        this.random = random;
+        this.board = null;
+        this.moves = 0;
+    }
+
+    @Override
+    public void newGame(int rows, int cols) {
+        SlidingPuzzleBoard fresh = new SlidingPuzzleBoard(rows, cols);
+        // Scrambling by legal moves keeps the board solvable
+        do {
+            fresh.shuffle(random, SHUFFLE_STEPS_PER_CELL * fresh.size());
+        } while (fresh.isSolved());
+        this.board = fresh;
+        this.moves = 0;
+    }
+
+    @Override
+    public String render() {
+        if (board == null) {
+            return "(no board)";
+        }
+        return board.render() + "\nMoves: " + moves + "\n";
+    }
+
+    @Override
+    public boolean applyMove(int tileValue) {
+        if (board == null || board.isSolved()) {
+            return false;
+        }
+        MoveAppliedEvent event = Metrics.jfr() ? new MoveAppliedEvent() : null;
+        if (event != null) event.begin();
+        long start = Metrics.start();
+        if (!board.slide(tileValue)) {
+            Metrics.invalidMove();
+            if (Metrics.jfr()) InvalidMoveEvent.emit(GAME, tileValue);
+            return false;
+        }
+        moves++;
+        Metrics.moveApplied(start);
+        if (event != null) event.finish(GAME, tileValue);
+        return true;
+    }
+
+    @Override
+    public boolean isWin() {
+        return board != null && board.isSolved();
+    }
+
+    /** Can this board size give optimal hints? */
+    public boolean hasHints() {
+        return board != null && hintsFor(board.rows(), board.cols());
+    }
+
+    /**
+     * Sizes whose hints come back within about a second: boards of up to 12 cells, and 4x4
+     * with its tuned 6-6-3 databases. The solver also handles 13 to 16 cells, but the hardest
+     * 2x7, 3x5 and 2x8 positions take seconds, too long to keep the prompt waiting.
+     */
+    public static boolean hintsFor(int rows, int cols) {
+        return SlidingPuzzleSolver.supports(rows, cols) && (rows * cols <= 12 || rows == 4 && cols == 4);
+    }
+
+    /**
+     * Next tile to slide on a shortest solution, or -1 if already solved.
+     * If a distance table has been enumerated for the size ({@link DistanceTable#forSize}),
+     * the hint is a few lookups in it. Otherwise the solver answers: the first hint for a size
+     * waits while its pattern databases are built (about 20 s on one core for 4x4, about a
+     * second for the smaller sizes). After that, boards of up to 12 cells take a few
+     * milliseconds; 4x4 hints are usually a few milliseconds too, and the hardest positions
+     * can take up to about a second.
+     * Throws IOException if the table or pattern databases cannot be read or written.
+     */
+    public int hint() throws IOException {
+        if (!hasHints()) {
+            throw new IllegalStateException("Hints need a board with at most 12 cells, or 4x4");
+        }
+        DistanceTable table = DistanceTable.forSize(board.rows(), board.cols());
+        if (table != null) {
+            return table.hint(board);
+        }
+        SlidingPuzzleSolver.Solution solution =
+                SlidingPuzzleSolver.forSize(board.rows(), board.cols()).solve(board);
+        return solution.length() == 0 ? -1 : solution.getTiles()[0];
+    }
+
+    public int getMoves() {
+        return moves;
+    }
+
+    public SlidingPuzzleBoard getBoard() {
+        return board;
+    }
+}
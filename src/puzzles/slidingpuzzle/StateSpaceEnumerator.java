@@ -0,0 +1,230 @@
+package puzzles.slidingpuzzle;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Breadth-first enumeration of a whole sliding puzzle state space, writing the exact
+ * optimal distance of every state to a {@link DistanceTable} file.
+ * Each level's frontier is expanded by several threads that claim states through an
+ * atomic visited bitmap and spill newly found states to per-thread files, so heap use
+ * is bounded by the bitmap (one bit per solvable state, n!/16 bytes) no matter how wide
+ * the frontier gets.
+ * Only boards with at most 12 cells (2x6, 3x4, ...) are tractable.
+ */
+public final class StateSpaceEnumerator {
+    private static final int IO_BUFFER = 1 << 16;
+
+    private final int rows;
+    private final int cols;
+    private final int size;
+    private final int[][] neighbours;
+
+    public StateSpaceEnumerator(int rows, int cols) {
+        if (!supports(rows, cols)) {
+            throw new IllegalArgumentException("Full enumeration needs at most " + PermutationIndex.MAX_N + " cells");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.size = rows * cols;
+        this.neighbours = PatternDatabase.neighbours(rows, cols);
+    }
+
+    public static boolean supports(int rows, int cols) {
+        return rows >= SlidingPuzzleBoard.MIN_SIZE && cols >= SlidingPuzzleBoard.MIN_SIZE
+            && rows * cols <= PermutationIndex.MAX_N;
+    }
+
+    /**
+     * Enumerate every state reachable from the goal and write the table to output.
+     * Returns the number of states at each distance. progress may be null.
+     */
+    public long[] run(File output, int threads, PrintStream progress) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread");
+        }
+        File spillDir = new File(output.getAbsoluteFile().getParentFile(), output.getName() + ".frontier");
+        if (!spillDir.isDirectory() && !spillDir.mkdirs()) {
+            throw new IOException("Cannot create " + spillDir);
+        }
+
+        long states = PermutationIndex.states(size);
+        AtomicLongArray visited = new AtomicLongArray((int) ((states + 63) >>> 6));
+        List<Long> levels = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        try (RandomAccessFile raf = new RandomAccessFile(output, "rw");
+             FileChannel channel = raf.getChannel()) {
+            long bytes = DistanceTable.fileSize(size);
+            raf.setLength(bytes);
+            MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            table.order(ByteOrder.LITTLE_ENDIAN);
+            // All ones marks every entry unreachable until BFS reaches it
+            for (int i = DistanceTable.HEADER_BYTES; i < bytes; i++) {
+                table.put(i, (byte) 0xFF);
+            }
+            DistanceTable.writeHeader(table, rows, cols);
+
+            int[] goal = new int[size];
+            for (int i = 0; i < size - 1; i++) goal[i] = i + 1;
+            long goalRank = PermutationIndex.rank(goal, size);
+            markVisited(visited, goalRank);
+            DistanceTable.set(table, goalRank, 0);
+
+            List<File> frontier = new ArrayList<>();
+            File first = new File(spillDir, "level-0-0.bin");
+            try (DataOutputStream out = openOut(first)) {
+                out.writeInt((int) goalRank);
+            }
+            frontier.add(first);
+            levels.add(1L);
+
+            long start = System.nanoTime();
+            for (int d = 1; ; d++) {
+                List<File> next = expand(pool, threads, frontier, visited, spillDir, d);
+                long count = commit(table, next, d);
+                for (File f : frontier) f.delete();
+                frontier = next;
+                if (count == 0) break;
+                levels.add(count);
+                if (progress != null) {
+                    progress.printf("distance %d: %d states (%.1f s)%n", d, count, (System.nanoTime() - start) / 1e9);
+                    // Levels can be minutes apart on 3x4, so don't leave them sitting in a buffer
+                    progress.flush();
+                }
+            }
+            for (File f : frontier) f.delete();
+            table.force();
+        } finally {
+            pool.shutdown();
+            spillDir.delete();
+        }
+
+        long[] result = new long[levels.size()];
+        for (int i = 0; i < result.length; i++) result[i] = levels.get(i);
+        return result;
+    }
+
+    // Expand every frontier file in parallel; worker w writes the states it claims to its own file
+    private List<File> expand(ExecutorService pool, int threads, final List<File> frontier,
+                              final AtomicLongArray visited, File spillDir, int d) throws IOException {
+        final AtomicInteger nextFile = new AtomicInteger();
+        List<File> outputs = new ArrayList<>();
+        List<Future<Void>> pending = new ArrayList<>();
+        for (int w = 0; w < threads; w++) {
+            final File out = new File(spillDir, "level-" + d + "-" + w + ".bin");
+            outputs.add(out);
+            pending.add(pool.submit(() -> {
+                int[] perm = new int[size];
+                try (DataOutputStream sink = openOut(out)) {
+                    int i;
+                    while ((i = nextFile.getAndIncrement()) < frontier.size()) {
+                        try (DataInputStream source = openIn(frontier.get(i))) {
+                            while (true) {
+                                int rank;
+                                try {
+                                    rank = source.readInt();
+                                } catch (EOFException e) {
+                                    break;
+                                }
+                                expandState(rank, perm, visited, sink);
+                            }
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        await(pending);
+        return outputs;
+    }
+
+    private void expandState(int rank, int[] perm, AtomicLongArray visited, DataOutputStream sink) throws IOException {
+        PermutationIndex.unrank(rank, perm, rows, cols);
+        int blank = 0;
+        while (perm[blank] != 0) blank++;
+        for (int nb : neighbours[blank]) {
+            perm[blank] = perm[nb];
+            perm[nb] = 0;
+            long child = PermutationIndex.rank(perm, size);
+            perm[nb] = perm[blank];
+            perm[blank] = 0;
+            if (markVisited(visited, child)) {
+                sink.writeInt((int) child);
+            }
+        }
+    }
+
+    // Single writer pass: neighbouring 7-bit entries share bytes, so the table is not written concurrently
+    private static long commit(MappedByteBuffer table, List<File> files, int d) throws IOException {
+        long count = 0;
+        for (File f : files) {
+            try (DataInputStream in = openIn(f)) {
+                while (true) {
+                    int rank;
+                    try {
+                        rank = in.readInt();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    DistanceTable.set(table, rank, d);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    // Returns true if this call was the one that marked the state
+    private static boolean markVisited(AtomicLongArray visited, long rank) {
+        int word = (int) (rank >>> 6);
+        long bit = 1L << rank;
+        while (true) {
+            long old = visited.get(word);
+            if ((old & bit) != 0) return false;
+            if (visited.compareAndSet(word, old, old | bit)) return true;
+        }
+    }
+
+    private static void await(List<Future<Void>> pending) throws IOException {
+        try {
+            for (Future<Void> f : pending) f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted during enumeration", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    private static DataOutputStream openOut(File f) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f), IO_BUFFER));
+    }
+
+    private static DataInputStream openIn(File f) throws IOException {
+        return new DataInputStream(new BufferedInputStream(new FileInputStream(f), IO_BUFFER));
+    }
+}